@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Avvia i benchmark JMH con le opzioni della riga di comando di JMH (es. "MetricsBenchmark -p files=20000").
+ * Se non viene specificato un formato dei risultati, questi vengono salvati in JSON nel file
+ * "jmh-result.json", da confrontare tra commit diversi (es. con JMH Visualizer).
+ */
+public class BenchmarkMain {
+	private static final String DEFAULT_RESULT = "jmh-result.json";
+
+	private BenchmarkMain() {}
+
+
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		if (cmd.shouldHelp()) {
+			cmd.showHelp();
+			return;
+		}
+		if (cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		if (!cmd.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+			if (!cmd.getResult().hasValue()) {
+				options.result(DEFAULT_RESULT);
+			}
+		}
+		new Runner(options.build()).run();
+	}
+}
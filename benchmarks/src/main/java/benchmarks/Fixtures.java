@@ -0,0 +1,345 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.util.FileUtils;
+
+import git.GitCommit;
+import git.GitRelease;
+import git.GitRepo;
+import jira.JiraTicket;
+import utils.Parameters;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Generatori degli input sintetici dei benchmark. Tutti i generatori sono deterministici a parità di
+ * seed, così che esecuzioni su commit diversi misurino gli stessi input.
+ */
+public class Fixtures {
+	public static final long SEED = 42L;
+	public static final String PROJECT = "BENCH";
+	public static final String RELEASE_FILTER = "release-";
+
+	private static final long START_EPOCH = 1_300_000_000_000L;		// Marzo 2011
+	private static final long DAY = 86_400_000L;
+
+	private static final String[] CODE_LINES = {
+			"int value = counter + 1;",
+			"if (value > limit) {",
+			"return list.get(index);",
+			"}",
+			"private static final String NAME = \"fixture\";",
+			"for (int i = 0; i < size; i++) {",
+			"logger.log(Level.INFO, \"Città: {0}\", name);",
+			"public void setValue(int value) {"
+	};
+	private static final String[] COMMENT_LINES = {
+			"// Commento su una linea",
+			"/**",
+			" * Commento Javadoc",
+			" */",
+			"/* blocco */"
+	};
+
+	private Fixtures() {}
+
+
+	/**
+	 * Genera il sorgente di una classe Java con il numero di linee in input: codice indentato, commenti
+	 * e linee vuote in proporzioni simili ai sorgenti reali.
+	 */
+	public static byte[] javaSource(Random random, int lines) {
+		StringBuilder builder = new StringBuilder(lines * 32);
+		for (int i = 0; i < lines; i++) {
+			builder.append(javaLine(random));
+			builder.append(random.nextInt(20) == 0 ? "\r\n" : "\n");
+		}
+		return builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Genera una linea di un sorgente Java (senza terminatore): codice, commento o linea vuota
+	 */
+	public static String javaLine(Random random) {
+		int kind = random.nextInt(10);
+		if (kind < 6) {
+			StringBuilder builder = new StringBuilder();
+			for (int t = random.nextInt(4); t > 0; t--) {
+				builder.append('\t');
+			}
+			return builder.append(CODE_LINES[random.nextInt(CODE_LINES.length)]).toString();
+		} else if (kind < 8) {
+			return "\t" + COMMENT_LINES[random.nextInt(COMMENT_LINES.length)];
+		} else if (kind == 8) {
+			return "   ";
+		}
+		return "";
+	}
+
+
+	/**
+	 * Genera una EditList con il numero di Edit in input, su un file di fileLines linee
+	 */
+	public static EditList editList(Random random, int edits, int fileLines) {
+		EditList editList = new EditList();
+		int step = Math.max(1, fileLines / Math.max(1, edits));
+		int lineA = 0;
+		int lineB = 0;
+		for (int i = 0; i < edits; i++) {
+			int deleted = random.nextInt(4);
+			int added = random.nextInt(6);
+			editList.add(new Edit(lineA, lineA + deleted, lineB, lineB + added));
+			lineA += deleted + step;
+			lineB += added + step;
+		}
+		return editList;
+	}
+
+
+	/**
+	 * Path di una classe Java del progetto sintetico
+	 */
+	public static String classPath(int index) {
+		return String.format("src/main/java/org/apache/bench/pkg%d/Class%d.java", index % 97, index);
+	}
+
+
+	/**
+	 * Genera un ObjectId casuale
+	 */
+	public static ObjectId randomId(Random random) {
+		byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+		random.nextBytes(raw);
+		return ObjectId.fromRaw(raw);
+	}
+
+
+	/**
+	 * Genera le release del progetto sintetico, una ogni intervallo di giorni in input
+	 */
+	public static List<GitRelease> releases(int count, int daysBetween) {
+		List<GitRelease> releases = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Date date = new Date(START_EPOCH + (i + 1) * daysBetween * DAY);
+			GitRelease release = new GitRelease(null, null, "1." + i + ".0", date);
+			release.setId(i + 1);
+			releases.add(release);
+		}
+		return releases;
+	}
+
+
+	/**
+	 * Genera i commit del progetto sintetico, ordinati per data, distribuiti fino alla data dell'ultima
+	 * release. Circa un commit su tre cita uno o due ticket tra quelli esistenti.
+	 */
+	public static List<GitCommit> commits(Random random, int count, int tickets, Date last) {
+		long span = last.getTime() - START_EPOCH;
+		long[] times = new long[count];
+		for (int i = 0; i < count; i++) {
+			times[i] = START_EPOCH + (long) (random.nextDouble() * span);
+		}
+		Arrays.sort(times);
+
+		List<GitCommit> commits = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			List<String> keys = new ArrayList<>(2);
+			if (tickets > 0 && random.nextInt(3) == 0) {
+				keys.add(PROJECT + "-" + (random.nextInt(tickets) + 1));
+				if (random.nextInt(4) == 0) {
+					keys.add(PROJECT + "-" + (random.nextInt(tickets) + 1));
+				}
+			}
+			GitCommit commit = new GitCommit(randomId(random), (int) (times[i] / 1000L));
+			commit.setTicketKeys(keys);
+			commits.add(commit);
+		}
+		return commits;
+	}
+
+
+	/**
+	 * Genera i ticket Jira del progetto sintetico (BENCH-1 ... BENCH-count)
+	 */
+	public static List<JiraTicket> tickets(int count) {
+		List<JiraTicket> tickets = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			JiraTicket ticket = new JiraTicket();
+			ticket.setId(String.valueOf(i));
+			ticket.setName(PROJECT + "-" + i);
+			tickets.add(ticket);
+		}
+		return tickets;
+	}
+
+
+	/**
+	 * Genera un dataset Weka con lo schema del dataset caricato da AnalyzeDataset: le colonne di
+	 * CSV_HEADER_WEKA senza VersionName e Path (eliminate al caricamento), quindi VersionID, le 12
+	 * metriche numeriche e Buggyness nominale. Le istanze sono distribuite uniformemente sulle release;
+	 * le classi buggy hanno in media metriche di modifica più alte, come nei dataset reali.
+	 */
+	public static Instances dataset(Random random, int rows, int releases, double buggyRatio) {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		for (String column : Parameters.CSV_HEADER_WEKA.trim().split(",")) {
+			if (column.equals("VersionName") || column.equals("Path")) {
+				continue;
+			}
+			if (column.equals("Buggyness")) {
+				attributes.add(new Attribute(column, Arrays.asList("false", "true")));
+			} else {
+				attributes.add(new Attribute(column));
+			}
+		}
+		Instances data = new Instances(PROJECT, attributes, rows);
+		int numAttributes = attributes.size();
+		int perRelease = Math.max(1, rows / releases);
+		for (int i = 0; i < rows; i++) {
+			boolean buggy = random.nextDouble() < buggyRatio;
+			double scale = buggy ? 2.5 : 1.0;
+			double[] values = new double[numAttributes];
+			values[0] = Math.min(releases, i / perRelease + 1);
+			for (int a = 1; a < numAttributes - 1; a++) {
+				// Distribuzione a coda lunga, come LOC e numero di revisioni
+				values[a] = Math.floor(Math.exp(random.nextGaussian() + 2.0) * scale);
+			}
+			values[numAttributes - 1] = buggy ? 1 : 0;
+			data.add(new DenseInstance(1.0, values));
+		}
+		return data;
+	}
+
+
+	/**
+	 * Crea una repository bare temporanea contenente i blob in input, compattati in un pack come in una
+	 * repository clonata. Ritorna la repository aperta; gli ObjectId dei blob sono scritti in ids.
+	 */
+	public static Git blobRepository(List<byte[]> blobs, List<ObjectId> ids) throws IOException, GitAPIException {
+		File dir = Files.createTempDirectory("bench-blobs").toFile();
+		Git git = Git.init().setBare(true).setDirectory(dir).call();
+		try (ObjectInserter inserter = git.getRepository().newObjectInserter()) {
+			for (byte[] blob : blobs) {
+				ids.add(inserter.insert(Constants.OBJ_BLOB, blob));
+			}
+			inserter.flush();
+		}
+		git.gc().call();
+		return git;
+	}
+
+
+	/**
+	 * Crea una repository bare temporanea con due tree del progetto sintetico, compattati in un pack. Il
+	 * secondo tree differisce dal primo per il numero di file in input, con la distribuzione dei tipi di
+	 * un commit reale: soprattutto MODIFY, poi ADD, DELETE e RENAME, ed una parte di file non Java.
+	 * Ritorna la repository aperta; gli ObjectId dei due tree sono scritti in trees.
+	 */
+	public static Git treeRepository(Random random, int diffs, int classes, List<ObjectId> trees) throws IOException, GitAPIException {
+		Map<String, String> before = new TreeMap<>();
+		for (int i = 0; i < classes; i++) {
+			before.put(classPath(i), "class Class" + i + " {}");
+		}
+		Map<String, String> after = new TreeMap<>(before);
+		for (int i = 0; i < diffs; i++) {
+			String path = classPath(random.nextInt(classes));
+			if (random.nextInt(5) == 0) {
+				path = path.replace(".java", ".xml");
+			}
+			int kind = random.nextInt(100);
+			if (kind < 70) {
+				before.putIfAbsent(path, "class Base" + i + " {}");
+				after.put(path, "class Modified" + i + " {}");
+			} else if (kind < 82) {
+				before.remove(path);
+				after.put(path, "class Added" + i + " {}");
+			} else if (kind < 92) {
+				before.putIfAbsent(path, "class Deleted" + i + " {}");
+				after.remove(path);
+			} else {
+				String newPath = classPath(classes + random.nextInt(classes));
+				String content = "class Renamed" + i + " {}";
+				before.put(path, content);
+				before.remove(newPath);
+				after.remove(path);
+				after.put(newPath, content);
+			}
+		}
+
+		File dir = Files.createTempDirectory("bench-trees").toFile();
+		Git git = Git.init().setBare(true).setDirectory(dir).call();
+		try (ObjectInserter inserter = git.getRepository().newObjectInserter()) {
+			trees.add(insertTree(inserter, before));
+			trees.add(insertTree(inserter, after));
+			inserter.flush();
+		}
+		git.gc().call();
+		return git;
+	}
+
+
+	/**
+	 * Inserisce i blob ed il tree (con i sotto-tree) dei file in input, ordinati per path
+	 */
+	private static ObjectId insertTree(ObjectInserter inserter, Map<String, String> files) throws IOException {
+		DirCache index = DirCache.newInCore();
+		DirCacheBuilder builder = index.builder();
+		for (Map.Entry<String, String> file : files.entrySet()) {
+			DirCacheEntry entry = new DirCacheEntry(file.getKey());
+			entry.setFileMode(FileMode.REGULAR_FILE);
+			entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, file.getValue().getBytes(StandardCharsets.UTF_8)));
+			builder.add(entry);
+		}
+		builder.finish();
+		return index.writeTree(inserter);
+	}
+
+
+	/**
+	 * Crea una GitRepo sintetica: la repository viene clonata da una sorgente locale con un solo commit,
+	 * senza accesso alla rete. Release e commit vanno impostati dal chiamante.
+	 */
+	public static GitRepo gitRepo(Path workDir) throws IOException, GitAPIException {
+		File source = workDir.resolve("source").toFile();
+		try (Git git = Git.init().setDirectory(source).call()) {
+			Files.write(source.toPath().resolve("README.md"), PROJECT.getBytes(StandardCharsets.UTF_8));
+			git.add().addFilepattern("README.md").call();
+			git.commit().setMessage("Initial commit").setAuthor(PROJECT, "bench@example.org")
+					.setCommitter(PROJECT, "bench@example.org").call();
+		}
+		String local = workDir.resolve("clone").toString();
+		return new GitRepo(PROJECT, local, RELEASE_FILTER, source.toURI().toString());
+	}
+
+
+	/**
+	 * Elimina una cartella temporanea creata dai generatori
+	 */
+	public static void delete(File dir) throws IOException {
+		FileUtils.delete(dir, FileUtils.RECURSIVE | FileUtils.RETRY | FileUtils.SKIP_MISSING);
+	}
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import git.GitDiff;
+import git.JavaDiffFilter;
+
+/**
+ * Benchmark del calcolo dei diff Java tra due tree, come in GitRepo.computeDiff(): scan del DiffFormatter
+ * con il JavaDiffFilter sul TreeWalk, quindi parsing del tipo di modifica e dei path (anche per i RENAME).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitDiffBenchmark {
+
+	@Param({"1000", "100000"})
+	int diffs;					// File modificati tra i due tree (es. tutti i diff di una release)
+
+	@Param({"5000"})
+	int classes;				// Classi del progetto da cui sono presi i path
+
+	private Git git;
+	private ObjectId oldTree;
+	private ObjectId newTree;
+	private DiffFormatter diffFormatter;
+	private List<DiffEntry> javaEntries;
+
+	@Setup
+	public void setup() throws IOException, GitAPIException {
+		List<ObjectId> trees = new ArrayList<>(2);
+		git = Fixtures.treeRepository(new Random(Fixtures.SEED), diffs, classes, trees);
+		oldTree = trees.get(0);
+		newTree = trees.get(1);
+		diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+		diffFormatter.setRepository(git.getRepository());
+		javaEntries = scan(new JavaDiffFilter());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		diffFormatter.close();
+		git.close();
+		Fixtures.delete(git.getRepository().getDirectory());
+	}
+
+
+	/**
+	 * DiffFormatter.scan con il JavaDiffFilter, che scarta i file non Java nel TreeWalk e conta tutti i file modificati
+	 */
+	@Benchmark
+	public int scanJavaDiff(Blackhole blackhole) throws IOException {
+		JavaDiffFilter javaFilter = new JavaDiffFilter();
+		blackhole.consume(scan(javaFilter));
+		return javaFilter.getChangedFiles();
+	}
+
+
+	/**
+	 * Costruzione dei GitDiff (tipo e path) per i DiffEntry dei file Java
+	 */
+	@Benchmark
+	public void newGitDiff(Blackhole blackhole) {
+		for (DiffEntry entry : javaEntries) {
+			blackhole.consume(new GitDiff(entry));
+		}
+	}
+
+
+	/**
+	 * Rappresentazione testuale dei GitDiff, costruita soltanto su richiesta
+	 */
+	@Benchmark
+	public void gitDiffContent(Blackhole blackhole) {
+		for (DiffEntry entry : javaEntries) {
+			blackhole.consume(new GitDiff(entry).getContent());
+		}
+	}
+
+
+	private List<DiffEntry> scan(JavaDiffFilter javaFilter) throws IOException {
+		diffFormatter.setPathFilter(javaFilter);
+		return diffFormatter.scan(oldTree, newTree);
+	}
+}
@@ -0,0 +1,158 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import data.ProjectClass;
+import git.GitCommit;
+import git.GitRelease;
+import git.GitRepo;
+import jira.JiraTicket;
+
+/**
+ * Benchmark delle operazioni di GitRepo sull'intera storia del progetto: assegnazione dei commit alle
+ * release, collegamento dei ticket Jira ai commit e ricerca delle classi di una release per path.
+ * La GitRepo è clonata da una repository locale minima; commit, release e ticket sono sintetici.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitRepoBenchmark {
+
+	@Param({"10000", "100000"})
+	int commits;
+
+	@Param({"50"})
+	int releases;
+
+	@Param({"5000"})
+	int tickets;
+
+	@Param({"5000"})
+	int classes;				// Classi per release
+
+	private Path workDir;
+	private GitRepo repo;
+	private List<JiraTicket> ticketList;
+	private GitRelease lookupRelease;
+	private String[] lookupPaths;
+
+	@Setup
+	public void setup() throws IOException, GitAPIException {
+		Random random = new Random(Fixtures.SEED);
+		workDir = Files.createTempDirectory("bench-repo");
+		repo = Fixtures.gitRepo(workDir);
+
+		List<GitRelease> releaseList = Fixtures.releases(releases, 30);
+		GitRelease last = releaseList.get(releaseList.size() - 1);
+		repo.setReleaseList(releaseList);
+		repo.setCommitList(Fixtures.commits(random, commits, tickets, last.getDate()));
+		ticketList = Fixtures.tickets(tickets);
+
+		// Ricerca per path: metà dei path sono classi della release, metà non esistono
+		List<ProjectClass> classList = new ArrayList<>(classes);
+		for (int i = 0; i < classes; i++) {
+			ProjectClass projectClass = new ProjectClass(Fixtures.classPath(i), last);
+			projectClass.setMetrics(last.getMetricStore().newMetrics());
+			classList.add(projectClass);
+		}
+		last.setClassList(classList);
+		lookupRelease = last;
+		lookupPaths = new String[classes];
+		for (int i = 0; i < classes; i++) {
+			lookupPaths[i] = Fixtures.classPath(random.nextInt(classes * 2));
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Fixtures.delete(workDir.toFile());
+	}
+
+
+	/**
+	 * GitRepo.bindRevisionsToReleases: una ricerca binaria sulle date delle release per ogni commit
+	 */
+	@Benchmark
+	public List<GitCommit> bindRevisionsToReleases() {
+		repo.bindRevisionsToReleases();
+		return repo.getCommitList();
+	}
+
+
+	/**
+	 * Assegnazione originale: una scansione di tutti i commit per ogni coppia di release consecutive
+	 */
+	@Benchmark
+	public List<GitCommit> bindRevisionsByScan() {
+		List<GitRelease> releaseList = repo.getReleaseList();
+		for (int i = 0; i < releaseList.size(); i++) {
+			repo.getRevisionsBetweenTwoReleases(i == 0 ? null : releaseList.get(i - 1), releaseList.get(i));
+		}
+		return repo.getCommitList();
+	}
+
+
+	/**
+	 * GitRepo.filterCommits: collegamento di ogni ticket al primo commit che lo cita. La lista dei
+	 * ticket viene copiata perché filterCommits rimuove i ticket senza commit.
+	 */
+	@Benchmark
+	public List<GitCommit> filterCommits() {
+		return repo.filterCommits(new ArrayList<>(ticketList));
+	}
+
+
+	/**
+	 * GitRelease.getProjectClass per classi presenti e non presenti nella release
+	 */
+	@Benchmark
+	public void getProjectClass(Blackhole blackhole) {
+		for (String path : lookupPaths) {
+			blackhole.consume(lookupRelease.getProjectClass(path));
+		}
+	}
+
+
+	/**
+	 * Ricerca originale di GitRelease.getProjectClass: una scansione della lista delle classi per ogni path
+	 */
+	@Benchmark
+	public void getProjectClassByScan(Blackhole blackhole) {
+		for (String path : lookupPaths) {
+			blackhole.consume(findByScan(lookupRelease.getClassList(), path));
+		}
+	}
+
+	private static ProjectClass findByScan(List<ProjectClass> classList, String path) {
+		for (ProjectClass p : classList) {
+			if (p.getPath().equals(path)) {
+				return p;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Conteggio delle linee di codice della versione originale di Metrics.calculateSize (Scanner e
+ * replaceAll su ogni linea). Mantenuto soltanto come riferimento per il confronto con LocCounter.
+ */
+public class LegacyLocCounter {
+
+	private LegacyLocCounter() {}
+
+
+	public static int count(byte[] data) {
+		String content = new String(data, StandardCharsets.UTF_8);
+
+		int calcSize = 0;
+		Scanner scanner = new Scanner(content);
+
+		while (scanner.hasNextLine()) {
+			String line = scanner.nextLine();
+			line = line.replaceAll("\\s+", "");
+			if (!(line.startsWith("/") || line.startsWith("*") || line.startsWith("//") || line.startsWith("*/")
+					|| line.equalsIgnoreCase(""))) {
+				calcSize = calcSize + 1;
+			}
+		}
+		scanner.close();
+		return calcSize;
+	}
+}
@@ -0,0 +1,137 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import data.LocCounter;
+import data.MetricStore;
+import data.Metrics;
+
+/**
+ * Benchmark del calcolo delle metriche per classe: Size (LOC del blob) e LocTouched (dalle EditList
+ * di un commit). Ogni invocazione elabora tutti i file del fixture, quindi il tempo è per release.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+	@Param({"200", "2000"})
+	int files;					// Numero di classi (blob) della release
+
+	@Param({"300"})
+	int lines;					// Linee per classe
+
+	@Param({"20"})
+	int edits;					// Edit per EditList
+
+	private List<byte[]> sources;
+	private List<ObjectId> blobIds;
+	private List<EditList> editLists;
+	private Git git;
+	private ObjectReader reader;
+	private MetricStore store;
+	private Metrics[] metrics;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, GitAPIException {
+		Random random = new Random(Fixtures.SEED);
+		sources = new ArrayList<>(files);
+		editLists = new ArrayList<>(files);
+		for (int i = 0; i < files; i++) {
+			sources.add(Fixtures.javaSource(random, lines));
+			editLists.add(Fixtures.editList(random, edits, lines));
+		}
+		blobIds = new ArrayList<>(files);
+		git = Fixtures.blobRepository(sources, blobIds);
+		reader = git.getRepository().newObjectReader();
+	}
+
+	@Setup(Level.Iteration)
+	public void newStore() {
+		store = new MetricStore(files);
+		metrics = new Metrics[files];
+		for (int i = 0; i < files; i++) {
+			metrics[i] = store.newMetrics();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		reader.close();
+		git.close();
+		Fixtures.delete(git.getRepository().getDirectory());
+	}
+
+
+	/**
+	 * Metrics.calculateSize: lettura del blob dalla repository e conteggio delle LOC
+	 */
+	@Benchmark
+	public void calculateSize(Blackhole blackhole) throws IOException {
+		for (int i = 0; i < files; i++) {
+			metrics[i].calculateSize(blobIds.get(i), reader);
+			blackhole.consume(metrics[i].getSize());
+		}
+	}
+
+
+	/**
+	 * Conteggio delle LOC sui byte già in memoria (LocCounter, usato da calculateSize)
+	 */
+	@Benchmark
+	public void locCounter(Blackhole blackhole) {
+		for (byte[] source : sources) {
+			blackhole.consume(LocCounter.count(source));
+		}
+	}
+
+
+	/**
+	 * Conteggio delle LOC della versione originale (Scanner e replaceAll), come riferimento
+	 */
+	@Benchmark
+	public void legacyLocCounter(Blackhole blackhole) {
+		for (byte[] source : sources) {
+			blackhole.consume(LegacyLocCounter.count(source));
+		}
+	}
+
+
+	/**
+	 * Metrics.calculateLocTouched: somma delle linee aggiunte/eliminate e aggiornamento delle medie
+	 */
+	@Benchmark
+	public void calculateLocTouched(Blackhole blackhole) {
+		for (int i = 0; i < files; i++) {
+			metrics[i].calculateLocTouched(editLists.get(i));
+		}
+		blackhole.consume(store);
+	}
+}
@@ -0,0 +1,576 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.GC;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.storage.pack.PackConfig;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Genera un progetto sintetico per i test di scala offline di CreateDataset:
+ * 		- NAME.git: repository Git bare con storia lineare, tag delle release (filtro + versione),
+ * 		  classi Java aggiunte, modificate e rinominate nel tempo da un insieme di autori
+ * 		- jira/: risposte delle Rest API di Jira (release e ticket) da servire come file
+ * 		- projects.json: configurazione del progetto per CreateDataset
+ * I ticket sono risolti da commit con la chiave nel messaggio, con FV, OV ed AV coerenti con le date
+ * delle release. Le dimensioni predefinite sono simili a quelle di BOOKKEEPER, moltiplicate per scale
+ * (tranne il numero di release). La storia copre sempre days giorni, quindi a scale maggiori i commit
+ * sono più frequenti.
+ *
+ * Uso: SyntheticProject out=DIR [name=SYNTH] [filter=release-] [scale=1] [releases=14] [commits=2000]
+ * 		[files=600] [renames=60] [authors=40] [tickets=300] [lines=150] [days=500] [seed=42] [gc=true]
+ */
+public class SyntheticProject {
+	static Logger logger = Logger.getLogger(SyntheticProject.class.getName());
+
+	private static final long START_EPOCH = 1_300_000_000L;			// Marzo 2011, in secondi
+	private static final int PAGE_SIZE = 1000;						// Ticket per pagina, come in JiraProject
+	private static final int FLUSH_COMMITS = 20_000;				// Commit per pack durante la generazione
+	private static final DateTimeFormatter JIRA_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ").withZone(ZoneOffset.UTC);
+
+	private final Map<String, String> options;
+	private final String name;
+	private final String releaseFilter;
+	private final int releases;
+	private final int commits;
+	private final int files;
+	private final int renames;
+	private final int authors;
+	private final int tickets;
+	private final int lines;
+	private final long commitInterval;		// Intervallo medio tra due commit, in secondi
+	private final Random random;
+
+	// Stato della generazione
+	private final List<SourceFile> liveFiles = new ArrayList<>();
+	private final TreeNode root = new TreeNode();
+	private final long[] commitTimes;
+	private final ObjectId[] commitIds;
+	private int nextFileIndex;
+
+	public SyntheticProject(Map<String, String> options) {
+		this.options = options;
+		int scale = intOption("scale", 1);
+		this.name = options.getOrDefault("name", "SYNTH").toUpperCase();
+		this.releaseFilter = options.getOrDefault("filter", "release-");
+		this.releases = intOption("releases", 14);
+		this.commits = Math.max(this.releases, intOption("commits", 2000) * scale);
+		this.files = intOption("files", 600) * scale;
+		this.renames = intOption("renames", 60) * scale;
+		this.authors = intOption("authors", 40) * scale;
+		this.tickets = Math.min(this.commits - 1, intOption("tickets", 300) * scale);
+		this.lines = intOption("lines", 150);
+		this.commitInterval = Math.max(1, intOption("days", 500) * 86_400L / this.commits);
+		this.random = new Random(Long.parseLong(options.getOrDefault("seed", String.valueOf(Fixtures.SEED))));
+		this.commitTimes = new long[this.commits];
+		this.commitIds = new ObjectId[this.commits];
+	}
+
+
+	public static void main(String[] args) throws IOException, GitAPIException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Invalid option " + arg + ", expected key=value");
+			}
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		new SyntheticProject(options).generate(new File(options.getOrDefault("out", "synthetic")));
+	}
+
+
+	/**
+	 * Genera repository, risposte di Jira e configurazione del progetto nella cartella in input
+	 */
+	public void generate(File out) throws IOException, GitAPIException {
+		File gitDir = new File(out, name.toLowerCase() + ".git");
+		File jiraDir = new File(out, "jira");
+		if (gitDir.exists() || jiraDir.exists()) {
+			throw new IOException("Output folder " + out + " already contains a synthetic project");
+		}
+		String output = String.format("Generating %s: %d releases, %d commits, %d files, %d renames, %d authors, %d tickets",
+				name, releases, commits, files, renames, authors, tickets);
+		logger.log(Level.INFO, output);
+
+		int[] releaseCommits = new int[releases];
+		for (int r = 0; r < releases; r++) {
+			releaseCommits[r] = (int) ((r + 1L) * commits / releases) - 1;
+		}
+		int[] fixCommits = pickCommits(tickets);		// fixCommits[t] è il commit che risolve il ticket t+1
+
+		try (Git git = Git.init().setBare(true).setDirectory(gitDir).call()) {
+			writeHistory(git.getRepository(), releaseCommits, fixCommits);
+			if (Boolean.parseBoolean(options.getOrDefault("gc", "true"))) {
+				repack((FileRepository) git.getRepository());
+			}
+		}
+		writeJira(jiraDir, releaseCommits, fixCommits);
+		writeProjectConfig(out, gitDir, jiraDir);
+		logger.log(Level.INFO, "Synthetic project written to {0}", out.getAbsolutePath());
+	}
+
+
+	/**
+	 * Sceglie count commit distinti, escluso il primo
+	 */
+	private int[] pickCommits(int count) {
+		boolean[] used = new boolean[commits];
+		int[] picked = new int[Math.min(count, commits - 1)];
+		for (int i = 0; i < picked.length; i++) {
+			int c;
+			do {
+				c = 1 + random.nextInt(commits - 1);
+			} while (used[c]);
+			used[c] = true;
+			picked[i] = c;
+		}
+		return picked;
+	}
+
+
+	/**
+	 * Scrive la storia lineare dei commit: il primo commit aggiunge un quarto delle classi, i successivi
+	 * aggiungono le restanti in modo uniforme, modificano alcune classi ed eseguono i rename.
+	 */
+	private void writeHistory(Repository repository, int[] releaseCommits, int[] fixCommits) throws IOException {
+		Map<Integer, Integer> ticketOfCommit = new HashMap<>();
+		for (int t = 0; t < fixCommits.length; t++) {
+			ticketOfCommit.put(fixCommits[t], t + 1);
+		}
+		boolean[] renameCommit = new boolean[commits];
+		for (int c : pickCommits(renames)) {
+			renameCommit[c] = true;
+		}
+
+		long time = START_EPOCH;
+		ObjectId parent = null;
+		ObjectInserter inserter = newInserter(repository);
+		try {
+			for (int c = 0; c < commits; c++) {
+				time += 1 + (long) (random.nextDouble() * 2 * commitInterval);
+				commitTimes[c] = time;
+
+				int target = c == 0 ? Math.max(1, files / 4) : files / 4 + (int) ((long) (files - files / 4) * c / commits);
+				while (liveFiles.size() < target) {
+					addFile(inserter);
+				}
+				Integer ticket = ticketOfCommit.get(c);
+				if (c > 0) {
+					// I fix toccano poche classi, gli altri commit un numero con distribuzione esponenziale
+					int modified = ticket != null ? 1 + random.nextInt(2)
+							: 1 + (int) Math.min(liveFiles.size() - 1, -3 * Math.log(1 - random.nextDouble()));
+					for (int m = 0; m < modified; m++) {
+						modifyFile(inserter, liveFiles.get(random.nextInt(liveFiles.size())));
+					}
+				}
+				if (renameCommit[c]) {
+					renameFile(inserter, liveFiles.get(random.nextInt(liveFiles.size())));
+				}
+
+				String message = ticket != null
+						? String.format("%s-%d: Fix bug in %s", name, ticket, liveFiles.get(random.nextInt(liveFiles.size())).className())
+						: String.format("Update %s", liveFiles.get(random.nextInt(liveFiles.size())).className());
+				parent = writeCommit(inserter, root.write(inserter), parent, author(), time, message);
+				commitIds[c] = parent;
+
+				if ((c + 1) % FLUSH_COMMITS == 0) {
+					inserter.flush();
+					inserter.close();
+					inserter = newInserter(repository);
+					logger.log(Level.INFO, "{0} commits written", c + 1);
+				}
+			}
+			inserter.flush();
+		} finally {
+			inserter.close();
+		}
+
+		updateRef(repository, Constants.R_HEADS + Constants.MASTER, parent);
+		for (int r = 0; r < releases; r++) {
+			updateRef(repository, Constants.R_TAGS + releaseFilter + versionName(r), commitIds[releaseCommits[r]]);
+		}
+	}
+
+
+	/**
+	 * Riscrive la repository in un unico pack con delta, come una repository clonata. I pack scritti
+	 * durante la generazione non hanno delta, quindi gli oggetti non vengono riutilizzati; gli oggetti
+	 * non raggiungibili (versioni intermedie di un file nello stesso commit) ed i vecchi pack vengono
+	 * eliminati subito.
+	 */
+	private static void repack(FileRepository repository) throws IOException {
+		logger.log(Level.INFO, "Repacking repository");
+		PackConfig packConfig = new PackConfig(repository);
+		packConfig.setReuseObjects(false);
+		packConfig.setReuseDeltas(false);
+		GC gc = new GC(repository);
+		gc.setPackConfig(packConfig);
+		gc.setExpire(new Date());
+		gc.setPackExpireAgeMillis(0);
+		try {
+			gc.gc();
+		} catch (ParseException e) {
+			throw new IOException("Invalid gc expiration", e);
+		}
+	}
+
+
+	/**
+	 * Inserter che scrive gli oggetti direttamente in un pack, invece di milioni di oggetti loose
+	 */
+	private static ObjectInserter newInserter(Repository repository) {
+		return ((FileRepository) repository).getObjectDatabase().newPackInserter();
+	}
+
+
+	private void addFile(ObjectInserter inserter) throws IOException {
+		SourceFile file = new SourceFile(nextFileIndex++, random.nextLong(), lines / 2 + random.nextInt(lines));
+		liveFiles.add(file);
+		root.put(file.path, file.write(inserter));
+	}
+
+	private void modifyFile(ObjectInserter inserter, SourceFile file) throws IOException {
+		file.version++;
+		root.put(file.path, file.write(inserter));
+	}
+
+	private void renameFile(ObjectInserter inserter, SourceFile file) throws IOException {
+		root.remove(file.path);
+		file.rename(nextFileIndex++);
+		root.put(file.path, file.write(inserter));
+	}
+
+
+	/**
+	 * Sceglie l'autore di un commit: pochi autori effettuano la maggior parte dei commit
+	 */
+	private PersonIdent author() {
+		double r = random.nextDouble();
+		int id = (int) (authors * r * r);
+		return new PersonIdent("Author " + id, "author" + id + "@synthetic.org");
+	}
+
+
+	private static ObjectId writeCommit(ObjectInserter inserter, ObjectId tree, ObjectId parent, PersonIdent author,
+			long time, String message) throws IOException {
+		PersonIdent ident = new PersonIdent(author, new Date(time * 1000L), TimeZone.getTimeZone("UTC"));
+		CommitBuilder commit = new CommitBuilder();
+		commit.setTreeId(tree);
+		if (parent != null) {
+			commit.setParentId(parent);
+		}
+		commit.setAuthor(ident);
+		commit.setCommitter(ident);
+		commit.setMessage(message);
+		return inserter.insert(commit);
+	}
+
+
+	private static void updateRef(Repository repository, String ref, ObjectId id) throws IOException {
+		RefUpdate update = repository.updateRef(ref);
+		update.setNewObjectId(id);
+		update.setForceUpdate(true);
+		RefUpdate.Result result = update.update();
+		if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED) {
+			throw new IOException("Cannot update " + ref + ": " + result);
+		}
+	}
+
+
+	/**
+	 * Nome della versione della release r (es. 1.3.0), uguale su Git (dopo il filtro) e su Jira
+	 */
+	private static String versionName(int r) {
+		return String.format("%d.%d.0", 1 + r / 10, r % 10);
+	}
+
+
+	/**
+	 * Ritorna la prima release con data successiva o uguale alla data in input (releases se non esiste),
+	 * con la stessa regola di GitRepo.bindRevisionsToReleases()
+	 */
+	private int releaseAt(long time, int[] releaseCommits) {
+		for (int r = 0; r < releases; r++) {
+			if (commitTimes[releaseCommits[r]] >= time) {
+				return r;
+			}
+		}
+		return releases;
+	}
+
+
+	/**
+	 * Scrive le risposte delle Rest API di Jira: release del progetto (più una versione non rilasciata)
+	 * e pagine dei ticket. Un ticket risolto dal commit c ha come FV la release di c, OV la release
+	 * della data di creazione e, nel 60% dei casi, le AV da una IV precedente alla OV fino alla FV esclusa.
+	 */
+	private void writeJira(File jiraDir, int[] releaseCommits, int[] fixCommits) throws IOException {
+		JSONArray versions = new JSONArray();
+		for (int r = 0; r <= releases; r++) {
+			versions.put(version(r, releaseCommits));
+		}
+		JSONObject project = new JSONObject();
+		project.put("key", name);
+		project.put("name", name);
+		project.put("versions", versions);
+		writeJson(new File(jiraDir, "project/" + name + ".json"), project);
+
+		JSONArray issues = new JSONArray();
+		for (int t = 0; t < fixCommits.length; t++) {
+			issues.put(ticket(t + 1, commitTimes[fixCommits[t]], releaseCommits));
+		}
+		for (int start = 0; start == 0 || start < issues.length(); start += PAGE_SIZE) {
+			JSONArray page = new JSONArray();
+			for (int i = start; i < Math.min(start + PAGE_SIZE, issues.length()); i++) {
+				page.put(issues.get(i));
+			}
+			JSONObject search = new JSONObject();
+			search.put("startAt", start);
+			search.put("maxResults", PAGE_SIZE);
+			search.put("total", issues.length());
+			search.put("issues", page);
+			writeJson(new File(jiraDir, "search/" + name + "_" + start + ".json"), search);
+		}
+	}
+
+
+	private JSONObject version(int r, int[] releaseCommits) {
+		JSONObject version = new JSONObject();
+		version.put("id", String.valueOf(10_000 + r));
+		version.put("name", versionName(r));
+		version.put("released", r < releases);
+		if (r < releases) {
+			version.put("releaseDate", LocalDate.ofEpochDay(commitTimes[releaseCommits[r]] / 86_400).toString());
+		}
+		return version;
+	}
+
+
+	private JSONObject ticket(int number, long fixTime, int[] releaseCommits) {
+		long releaseSpan = commitInterval * commits / releases;
+		long created = Math.max(START_EPOCH, fixTime - (long) (random.nextDouble() * 3 * releaseSpan));
+		int fv = releaseAt(fixTime, releaseCommits);
+		int ov = releaseAt(created, releaseCommits);
+
+		JSONArray fixVersions = new JSONArray();
+		fixVersions.put(versionRef(fv));
+		JSONArray affected = new JSONArray();
+		if (ov > 0 && random.nextDouble() < 0.6) {
+			int iv = Math.max(0, ov - 1 - random.nextInt(3));
+			for (int r = iv; r < fv; r++) {
+				affected.put(versionRef(r));
+			}
+		}
+
+		JSONObject fields = new JSONObject();
+		fields.put("fixVersions", fixVersions);
+		fields.put("versions", affected);
+		fields.put("created", JIRA_DATE_TIME.format(Instant.ofEpochSecond(created)));
+		fields.put("resolutiondate", JIRA_DATE_TIME.format(Instant.ofEpochSecond(fixTime + 3600)));
+		JSONObject ticket = new JSONObject();
+		ticket.put("id", String.valueOf(100_000 + number));
+		ticket.put("key", name + "-" + number);
+		ticket.put("fields", fields);
+		return ticket;
+	}
+
+
+	private JSONObject versionRef(int r) {
+		JSONObject version = new JSONObject();
+		version.put("name", versionName(r));
+		version.put("released", r < releases);
+		return version;
+	}
+
+
+	/**
+	 * Scrive projects.json con il progetto sintetico: la repository viene clonata dal bare generato e
+	 * Jira viene letto dai file
+	 */
+	private void writeProjectConfig(File out, File gitDir, File jiraDir) throws IOException {
+		JSONObject config = new JSONObject();
+		config.put("name", name);
+		config.put("releaseFilter", releaseFilter);
+		config.put("repoPath", new File(out, name.toLowerCase() + "-clone").getAbsolutePath());
+		config.put("repoURL", gitDir.getAbsoluteFile().toURI().toString());
+		config.put("jiraURL", jiraDir.getAbsoluteFile().toURI().toString());
+		JSONArray projects = new JSONArray();
+		projects.put(config);
+		try (FileWriter writer = new FileWriter(new File(out, "projects.json"))) {
+			projects.write(writer, 2, 0);
+		}
+	}
+
+
+	private static void writeJson(File file, JSONObject json) throws IOException {
+		if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+			throw new IOException("Cannot create " + file.getParent());
+		}
+		try (FileWriter writer = new FileWriter(file)) {
+			json.write(writer);
+		}
+	}
+
+
+	private int intOption(String key, int defaultValue) {
+		return Integer.parseInt(options.getOrDefault(key, String.valueOf(defaultValue)));
+	}
+
+
+	/**
+	 * Classe Java del progetto sintetico. Il contenuto non viene mantenuto in memoria: è rigenerato dal
+	 * seed e dalla versione, ed ogni versione modifica alcune linee della precedente.
+	 */
+	private class SourceFile {
+		private final long seed;
+		private final int lineCount;
+		private int index;
+		private int version;
+		private String path;
+
+		SourceFile(int index, long seed, int lineCount) {
+			this.seed = seed;
+			this.lineCount = lineCount;
+			rename(index);
+		}
+
+		void rename(int newIndex) {
+			this.index = newIndex;
+			this.path = packageName().replace('.', '/') + "/" + className() + ".java";
+		}
+
+		/**
+		 * Package della classe: circa 40 classi per package e 40 package per modulo, così che ogni
+		 * commit riscriva soltanto alberi di poche decine di voci
+		 */
+		String packageName() {
+			int pkg = index % Math.max(1, files / 40);
+			return String.format("src.main.java.org.apache.%s.mod%d.pkg%d", name.toLowerCase(), pkg / 40, pkg);
+		}
+
+		String className() {
+			return "Class" + index;
+		}
+
+		ObjectId write(ObjectInserter inserter) throws IOException {
+			Random content = new Random(seed);
+			List<String> body = new ArrayList<>(lineCount + 8 * version);
+			for (int i = 0; i < lineCount; i++) {
+				body.add(Fixtures.javaLine(content));
+			}
+			for (int v = 1; v <= version; v++) {
+				Random edit = new Random(seed * 31 + v);
+				int position = edit.nextInt(body.size() + 1);
+				int removed = Math.min(edit.nextInt(3), body.size() - position);
+				for (int i = 0; i < removed; i++) {
+					body.remove(position);
+				}
+				for (int i = edit.nextInt(6); i > 0; i--) {
+					body.add(position, Fixtures.javaLine(edit));
+				}
+			}
+
+			StringBuilder source = new StringBuilder(body.size() * 32);
+			source.append("package ").append(packageName().substring("src.main.java.".length())).append(";\n\n");
+			source.append("public class ").append(className()).append(" {\n");
+			for (String line : body) {
+				source.append(line).append('\n');
+			}
+			source.append("}\n");
+			return inserter.insert(Constants.OBJ_BLOB, source.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+
+	/**
+	 * Cartella della repository: gli alberi vengono riscritti soltanto se è cambiato un file al loro interno
+	 */
+	private static class TreeNode {
+		private final TreeMap<String, TreeNode> dirs = new TreeMap<>();
+		private final TreeMap<String, ObjectId> files = new TreeMap<>();
+		private ObjectId id;
+
+		void put(String path, ObjectId blob) {
+			id = null;
+			int slash = path.indexOf('/');
+			if (slash < 0) {
+				files.put(path, blob);
+			} else {
+				dirs.computeIfAbsent(path.substring(0, slash), k -> new TreeNode()).put(path.substring(slash + 1), blob);
+			}
+		}
+
+		void remove(String path) {
+			id = null;
+			int slash = path.indexOf('/');
+			if (slash < 0) {
+				files.remove(path);
+				return;
+			}
+			String dir = path.substring(0, slash);
+			TreeNode child = dirs.get(dir);
+			child.remove(path.substring(slash + 1));
+			if (child.dirs.isEmpty() && child.files.isEmpty()) {
+				dirs.remove(dir);
+			}
+		}
+
+		/**
+		 * Scrive l'albero (e gli alberi modificati al suo interno). Le voci sono ordinate come in Git,
+		 * dove una cartella viene confrontata come "nome/".
+		 */
+		ObjectId write(ObjectInserter inserter) throws IOException {
+			if (id != null) {
+				return id;
+			}
+			TreeMap<String, Object> entries = new TreeMap<>();
+			for (Map.Entry<String, TreeNode> dir : dirs.entrySet()) {
+				entries.put(dir.getKey() + "/", dir.getValue().write(inserter));
+			}
+			entries.putAll(files);
+			TreeFormatter formatter = new TreeFormatter();
+			for (Map.Entry<String, Object> entry : entries.entrySet()) {
+				String key = entry.getKey();
+				if (key.endsWith("/")) {
+					formatter.append(key.substring(0, key.length() - 1), FileMode.TREE, (ObjectId) entry.getValue());
+				} else {
+					formatter.append(key, FileMode.REGULAR_FILE, (ObjectId) entry.getValue());
+				}
+			}
+			id = inserter.insert(formatter);
+			return id;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import weka.WekaAPI;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.evaluation.Evaluation;
+import weka.core.Instances;
+
+/**
+ * Benchmark dei passi di un'iterazione di walk forward di WekaAPI: split in training e test set,
+ * balancing, feature selection e addestramento/valutazione dei classificatori. Il dataset sintetico
+ * ha lo schema del dataset reale; il test set è l'ultima release, il training set tutte le precedenti.
+ * I passi più costosi durano secondi per invocazione, quindi ogni misura è una singola esecuzione.
+ * Le dimensioni maggiori si ottengono con -p rows=1000000 (SMOTE e IBk richiedono ore a quella scala).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WekaBenchmark {
+	private static final String VERSIONID = "VersionID";
+
+	@Param({"1000", "10000", "100000"})
+	int rows;
+
+	@Param({"10"})
+	int releases;
+
+	@Param({"0.15"})
+	double buggyRatio;
+
+	private WekaAPI api;
+	private Instances dataset;
+	private Instances trainingSet;
+	private Instances testSet;
+
+	@Setup
+	public void setup() {
+		dataset = Fixtures.dataset(new Random(Fixtures.SEED), rows, releases, buggyRatio);
+		api = new WekaAPI(Fixtures.PROJECT);
+		api.setDataset(dataset);
+
+		// Preparazione dei set come in runWalkForwardConfiguration
+		Instances[] trainTest = api.splitTrainingTestSet(dataset, releases);
+		trainingSet = trainTest[0];
+		testSet = trainTest[1];
+		int index = trainingSet.attribute(VERSIONID).index();
+		trainingSet.deleteAttributeAt(index);
+		testSet.deleteAttributeAt(index);
+		trainingSet.setClassIndex(trainingSet.numAttributes() - 1);
+		testSet.setClassIndex(trainingSet.numAttributes() - 1);
+	}
+
+
+	/**
+	 * WekaAPI.splitTrainingTestSet sull'ultima release
+	 */
+	@Benchmark
+	public Instances[] splitTrainingTestSet() {
+		return api.splitTrainingTestSet(dataset, releases);
+	}
+
+
+	/**
+	 * Balancing del training set: SpreadSubsample ("Undersampling"), Resample ("Oversampling"), SMOTE
+	 */
+	@State(Scope.Benchmark)
+	public static class Resampling {
+		@Param({"Undersampling", "Oversampling", "Smote"})
+		String method;
+	}
+
+	@Benchmark
+	public Instances resampling(Resampling resampling) throws Exception {
+		return api.applyResampling(trainingSet, resampling.method);
+	}
+
+
+	/**
+	 * Feature selection con CfsSubsetEval e GreedyStepwise
+	 */
+	@Benchmark
+	public Instances[] featureSelection() throws Exception {
+		return api.applyFeatureSelection(trainingSet, testSet);
+	}
+
+
+	/**
+	 * buildClassifier sul training set ed evaluateModel sul test set, per ogni classificatore
+	 */
+	@State(Scope.Benchmark)
+	public static class Classifier {
+		@Param({"Random Forest", "Naive Bayes", "IBk"})
+		String name;
+	}
+
+	@Benchmark
+	public Evaluation buildAndEvaluate(Classifier classifier) throws Exception {
+		api.setupClassifier(classifier.name);
+		AbstractClassifier model = api.getClassifier();
+		model.buildClassifier(trainingSet);
+		Evaluation eval = new Evaluation(testSet);
+		eval.evaluateModel(model, testSet);
+		return eval;
+	}
+}
@@ -5,14 +5,21 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand.ListMode;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.eclipse.jgit.transport.TagOpt;
 
 import git.GitRelease;
 import utils.Parameters;
@@ -21,25 +28,94 @@ import utils.Parameters;
  */
 public class GitHubAPI {
 	
+	private static boolean objectCacheConfigured = false;
+	
 	private GitHubAPI() {}
+	
+	
+	/**
+	 * Configura la cache degli oggetti di JGit (finestre dei pack e basi delta) secondo i Parameters.
+	 * La configurazione è globale per la JVM, quindi viene installata una sola volta.
+	 **/
+	public static synchronized void configureObjectCache() {
+		if (objectCacheConfigured) {
+			return;
+		}
+		WindowCacheConfig config = new WindowCacheConfig();
+		config.setPackedGitLimit(Parameters.PACKED_GIT_LIMIT);
+		config.setDeltaBaseCacheLimit(Parameters.DELTA_BASE_CACHE_LIMIT);
+		config.setPackedGitMMAP(Parameters.PACKED_GIT_MMAP);
+		config.install();
+		objectCacheConfigured = true;
+	}
+	
+	
+	/**
+	 * Compatta la repository con un gc che scrive anche le bitmap di raggiungibilità. Il gc viene
+	 * eseguito soltanto se la repository ha oggetti sciolti, più di un pack o nessuna bitmap.
+	 **/
+	public static void repackRepository(Git git) throws GitAPIException {
+		Logger logger = Logger.getLogger("GitHubAPI");
+		Properties statistics = git.gc().getStatistics();
+		long looseObjects = Long.parseLong(statistics.getProperty("numberOfLooseObjects", "0"));
+		long packFiles = Long.parseLong(statistics.getProperty("numberOfPackFiles", "0"));
+		File packDirectory = new File(git.getRepository().getDirectory(), "objects/pack");
+		String[] bitmaps = packDirectory.list((dir, name) -> name.endsWith(".bitmap"));
+		if (looseObjects == 0 && packFiles <= 1 && bitmaps != null && bitmaps.length > 0) {
+			logger.log(Level.INFO, "Repository already packed. Skipping gc.");
+			return;
+		}
+		
+		// Configurazione solo in memoria: non viene salvata nel file config della repository
+		git.getRepository().getConfig().setBoolean(ConfigConstants.CONFIG_PACK_SECTION, null, ConfigConstants.CONFIG_KEY_BUILD_BITMAPS, true);
+		logger.log(Level.INFO, "Repacking repository...");
+		git.gc().call();
+		logger.log(Level.INFO, "Repository repacked Succesfully");
+	}
+	
+	
 	/**
 	 * Inizializza la repository Git. Se non è presente in locale effettua il clone
 	 * dall'URL GitHub, altrimenti apre la copia della repository già presente in
 	 * locale
 	 **/
 	public static Git initializeRepository(String projectName, String local) throws GitAPIException, IOException {
-		Git git;
 		String repoURL = String.format("https://github.com/%s/%s", Parameters.PROJ_ORG, projectName.toLowerCase());
+		return initializeRepository(repoURL, local, Parameters.BARE_REPOSITORY, Parameters.FROZEN_REPOSITORY, Parameters.CLONE_BRANCH);
+	}
+	
+	
+	/**
+	 * Inizializza la repository Git a partire da un URL qualsiasi (anche file://).
+	 * 		- bare: il clone viene effettuato senza working tree; una copia locale bare viene aggiornata con fetch
+	 * 		- frozen: la copia locale viene soltanto aperta, senza accedere alla rete né modificare file
+	 * 		- branch: se non vuota, viene clonata soltanto quella branch (con i tag raggiungibili da essa)
+	 **/
+	public static Git initializeRepository(String repoURL, String local, boolean bare, boolean frozen, String branch) throws GitAPIException, IOException {
+		Git git;
 		Logger logger = Logger.getLogger("GitHubAPI");
 		if (!Files.exists(Paths.get(local))) {
 			logger.log(Level.INFO, "Starting Cloning Repository");
-			git = Git.cloneRepository().setURI(repoURL).setDirectory(new File(local)).call();
+			CloneCommand clone = Git.cloneRepository().setURI(repoURL).setDirectory(new File(local)).setBare(bare);
+			if (!branch.isEmpty()) {
+				clone.setCloneAllBranches(false)
+					.setBranchesToClone(Collections.singletonList(Constants.R_HEADS + branch))
+					.setBranch(Constants.R_HEADS + branch)
+					.setTagOption(TagOpt.AUTO_FOLLOW);
+			}
+			git = clone.call();
 			logger.log(Level.INFO, "Repository cloned Succesfully");
 		} else {
 			logger.log(Level.INFO, "Local Git Repository Found. Opening.");
 			git = Git.open(new File(local));
-			git.checkout().setName(getDefaultBranchName(git)).call();
-			git.pull().call();
+			if (frozen) {
+				logger.log(Level.INFO, "Frozen repository: skipping checkout and pull.");
+			} else if (git.getRepository().isBare()) {
+				git.fetch().call();
+			} else {
+				git.checkout().setName(getDefaultBranchName(git)).call();
+				git.pull().call();
+			}
 		}
 		logger.log(Level.INFO, "Repository opened Succesfully");
 		return git;
@@ -0,0 +1,43 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dizionario degli autori di un progetto: associa ad ogni nome un ID intero piccolo e progressivo,
+ * così che le metriche possano tenere traccia degli autori tramite interi invece che stringhe.
+ * Non è thread-safe: va utilizzato dal solo thread che aggiorna le metriche.
+ */
+public class AuthorDictionary {
+	private Map<String, Integer> ids = new HashMap<>();
+	private List<String> names = new ArrayList<>();
+
+
+	/**
+	 * Ritorna l'ID dell'autore, assegnandone uno nuovo se l'autore non è ancora presente
+	 */
+	public int getId(String name) {
+		Integer id = ids.get(name);
+		if (id == null) {
+			id = names.size();
+			ids.put(name, id);
+			names.add(name);
+		}
+		return id;
+	}
+
+
+	/**
+	 * Ritorna il nome dell'autore con l'ID in input
+	 */
+	public String getName(int id) {
+		return names.get(id);
+	}
+
+
+	public int size() {
+		return names.size();
+	}
+}
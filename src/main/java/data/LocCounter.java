@@ -0,0 +1,131 @@
+package data;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Conta le linee di codice di un blob lavorando direttamente sui byte UTF-8, senza allocare
+ * stringhe per ogni linea. Produce gli stessi conteggi della versione basata su Scanner e replaceAll:
+ * una linea viene contata se il primo carattere non di spaziatura non è '/' o '*'.
+ * I separatori di linea sono quelli di Scanner (\n, \r, U+0085, U+2028, U+2029), mentre la
+ * spaziatura è quella di \s (spazio, \t, \u000B, \f).
+ */
+public class LocCounter {
+	public static final int VERSION = 1;	// Versione delle regole di conteggio: va incrementata se i conteggi cambiano
+	private static final int BUFFER_SIZE = 8192;
+
+	// Prefissi UTF-8 dei separatori multi-byte U+0085 (C2 85), U+2028 (E2 80 A8) e U+2029 (E2 80 A9)
+	private static final int NONE = 0;
+	private static final int PENDING_C2 = 1;
+	private static final int PENDING_E2 = 2;
+	private static final int PENDING_E2_80 = 3;
+
+	private int count;
+	private boolean lineDecided;	// true se è già stato letto il primo carattere significativo della linea
+	private int pending = NONE;
+
+
+	/**
+	 * Ritorna il numero di linee di codice contenute nell'array di byte
+	 */
+	public static int count(byte[] data) {
+		LocCounter counter = new LocCounter();
+		counter.feed(data, 0, data.length);
+		return counter.finish();
+	}
+
+
+	/**
+	 * Ritorna il numero di linee di codice leggendo lo stream a blocchi. Usato per i blob troppo
+	 * grandi per essere caricati in memoria.
+	 */
+	public static int count(InputStream in) throws IOException {
+		LocCounter counter = new LocCounter();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			counter.feed(buffer, 0, read);
+		}
+		return counter.finish();
+	}
+
+
+	/**
+	 * Elabora un blocco di byte, mantenendo lo stato tra un blocco e il successivo
+	 */
+	public void feed(byte[] data, int offset, int length) {
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			int b = data[i] & 0xFF;
+			if (pending != NONE && !resolvePending(b)) {
+				continue;
+			}
+			switch (b) {
+			case '\n':
+			case '\r':
+				lineDecided = false;
+				break;
+			case ' ':
+			case '\t':
+			case 0x0B:
+			case '\f':
+				break;
+			case 0xC2:
+				pending = PENDING_C2;
+				break;
+			case 0xE2:
+				pending = PENDING_E2;
+				break;
+			default:
+				content(b);
+			}
+		}
+	}
+
+
+	/**
+	 * Ritorna il conteggio finale, chiudendo un eventuale prefisso multi-byte rimasto in sospeso
+	 */
+	public int finish() {
+		if (pending != NONE) {
+			pending = NONE;
+			content(0xC2);
+		}
+		return count;
+	}
+
+
+	/**
+	 * Gestisce il byte successivo ad un possibile prefisso di separatore. Ritorna true se il byte
+	 * deve essere ancora elaborato come un byte normale.
+	 */
+	private boolean resolvePending(int b) {
+		if (pending == PENDING_C2 && b == 0x85
+				|| pending == PENDING_E2_80 && (b == 0xA8 || b == 0xA9)) {
+			pending = NONE;
+			lineDecided = false;
+			return false;
+		}
+		if (pending == PENDING_E2 && b == 0x80) {
+			pending = PENDING_E2_80;
+			return false;
+		}
+		// Il prefisso era un normale carattere non ASCII
+		pending = NONE;
+		content(0xC2);
+		return true;
+	}
+
+
+	/**
+	 * Registra un carattere significativo: la linea viene contata se è il primo e non è un commento
+	 */
+	private void content(int b) {
+		if (!lineDecided) {
+			lineDecided = true;
+			if (b != '/' && b != '*') {
+				count++;
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Archivio colonnare delle metriche delle classi di una release: ogni metrica è un array di interi
+ * indicizzato per riga, invece di un oggetto Metrics con i propri campi per ogni classe.
+ * Metrics è soltanto una vista (archivio, riga) su queste colonne.
+ * Non è thread-safe: ogni release ha il proprio archivio, popolato da un solo thread alla volta.
+ */
+public class MetricStore {
+
+	// Colonne delle metriche
+	static final int SIZE = 0;				//  1) Numero di righe di codice, escluse linee di commento e linee vuote
+	static final int LOC_TOUCHED = 1;		//  2) Numero di righe di codice modificate nel commit
+	static final int NUMBER_REVISIONS = 2;	//  3) Numero di revisioni in cui è stato modificata la classe (nella release)
+	static final int NUMBER_BUG_FIXES = 3;	//  4) Numero di commit di tipo FixBug che hanno toccato la classe (nella release)
+	static final int LOC_ADDED = 4;			//  5) Numero di righe di codice aggiunte nel commit
+	static final int MAX_LOC_ADDED = 5;		//  6) Massimo numero di LocAdded tra tutte le revisioni che hanno toccato la classe (nella release)
+	static final int AVG_LOC_ADDED = 6;		//  7) Media tra tutti i LocAdded delle revisioni che hanno toccato la classe (nella release)
+	static final int AGE = 7;				//  8) Differenza in settimane tra la data di creazione della classe e la data della release corrente
+	static final int CHG_SET_SIZE = 8;		//  9) Numero di file committed insieme alla classe
+	static final int MAX_CHG_SET_SIZE = 9;	//  10) Numero massimo file committed insieme alla classe
+	static final int AVG_CHG_SET_SIZE = 10;	//  11) Numero medio file committed insieme alla classe
+	static final int N_AUTH = 11;			//  12) Numero di autori che hanno toccato la classe (nella release)
+
+	// Usate per il calcolo delle medie
+	static final int COUNTER_LOC_ADDED = 12;
+	static final int COUNTER_CHG_SET = 13;
+
+	private static final int COLUMNS = 14;
+	private static final int DEFAULT_CAPACITY = 64;
+	private static final int[] NO_AUTHORS = new int[0];
+
+	int[][] columns = new int[COLUMNS][];
+	int[][] authorIds;		// ID degli autori distinti per riga, ordinati (i primi nAuth elementi sono validi)
+	private int rows;
+
+	public MetricStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public MetricStore(int capacity) {
+		capacity = Math.max(capacity, 1);
+		for (int c = 0; c < COLUMNS; c++) {
+			columns[c] = new int[capacity];
+		}
+		authorIds = new int[capacity][];
+		Arrays.fill(authorIds, NO_AUTHORS);
+	}
+
+
+	/**
+	 * Aggiunge una riga con tutte le metriche a zero e ne ritorna la vista
+	 */
+	public Metrics newMetrics() {
+		if (rows == authorIds.length) {
+			resize(rows + (rows >> 1) + 1);
+		}
+		return new Metrics(this, rows++);
+	}
+
+
+	/**
+	 * Riduce le colonne al numero di righe effettivo. Da invocare quando la release è completa.
+	 */
+	public void trimToSize() {
+		if (rows < authorIds.length) {
+			resize(rows);
+		}
+	}
+
+	private void resize(int capacity) {
+		for (int c = 0; c < COLUMNS; c++) {
+			columns[c] = Arrays.copyOf(columns[c], capacity);
+		}
+		int oldCapacity = authorIds.length;
+		authorIds = Arrays.copyOf(authorIds, capacity);
+		if (capacity > oldCapacity) {
+			Arrays.fill(authorIds, oldCapacity, capacity, NO_AUTHORS);
+		}
+	}
+
+
+	/**
+	 * Aggiunge l'autore alla riga, se non già presente, tramite inserimento ordinato
+	 */
+	void addAuthor(int row, int authorId) {
+		int[] ids = authorIds[row];
+		int nAuth = columns[N_AUTH][row];
+		int position = Arrays.binarySearch(ids, 0, nAuth, authorId);
+		if (position >= 0) {
+			return;
+		}
+		int insertion = -position - 1;
+		if (nAuth == ids.length) {
+			ids = Arrays.copyOf(ids, Math.max(4, nAuth * 2));
+			authorIds[row] = ids;
+		}
+		System.arraycopy(ids, insertion, ids, insertion + 1, nAuth - insertion);
+		ids[insertion] = authorId;
+		columns[N_AUTH][row] = nAuth + 1;
+	}
+
+
+	/**
+	 * Scrive le metriche della riga nell'ordine delle colonne del dataset, leggendole direttamente dalle colonne
+	 */
+	public void appendRow(StringBuilder builder, int row, String separator) {
+		builder.append(columns[SIZE][row]).append(separator)
+			.append(columns[LOC_TOUCHED][row]).append(separator)
+			.append((double) columns[AVG_LOC_ADDED][row]).append(separator)
+			.append(columns[LOC_ADDED][row]).append(separator)
+			.append(columns[MAX_LOC_ADDED][row]).append(separator)
+			.append(columns[CHG_SET_SIZE][row]).append(separator)
+			.append(columns[MAX_CHG_SET_SIZE][row]).append(separator)
+			.append(columns[AVG_CHG_SET_SIZE][row]).append(separator)
+			.append(columns[NUMBER_REVISIONS][row]).append(separator)
+			.append(columns[NUMBER_BUG_FIXES][row]).append(separator)
+			.append(columns[N_AUTH][row]).append(separator)
+			.append(columns[AGE][row]);
+	}
+
+
+	/*===============================================================================================
+	 * Getters & Setters
+	 */
+	public int size() {
+		return rows;
+	}
+}
@@ -1,39 +1,31 @@
 package data;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.Arrays;
 
 import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.diff.EditList;
 import org.eclipse.jgit.errors.LargeObjectException;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.ObjectStream;
 
+import utils.FlightEvents;
+import utils.RunMetrics;
+
+/**
+ * Vista sulle metriche di una classe: le metriche sono memorizzate nelle colonne del MetricStore
+ * della release, alla riga indicata.
+ */
 public class Metrics {
 
-	private int size;				//  1) Numero di righe di codice, escluse linee di commento e linee vuote
-	private int locTouched; 		//  2) Numero di righe di codice modificate nel commit
-	private int numberRevisions; 	//  3) Numero di revisioni in cui è stato modificata la classe (nella release)
-	private int numberBugFixes; 	//  4) Numero di commit di tipo FixBug che hanno toccato la classe (nella release)
-	private int locAdded; 			//  5) Numero di righe di codice aggiunte nel commit
-	private int maxLocAdded; 		//  6) Massimo numero di LocAdded tra tutte le revisioni che hanno toccato la classe (nella release)
-	private int avgLocAdded; 		//  7) Media tra tutti i LocAdded delle revisioni che hanno toccato la classe (nella release)
-	private int age; 				//  8) Differenza in settimane tra la data di creazione della classe e la data della release corrente
-	private int chgSetSize;			//  9) Numero di file committed insieme alla classe
-	private int maxChgSetSize;		//  10) Numero massimo file committed insieme alla classe
-	private int avgChgSetSize;		//  11) Numero medio file committed insieme alla classe
-	private int nAuth;				//  12) Numero di autori che hanno toccato la classe (nella release)
-	
-	// Usate per il calcolo delle medie
-	private int counterLocAdded;
-	private int counterChgSet;
-	private List<String> listOfAuthors = new ArrayList<>();
+	private final MetricStore store;
+	private final int row;
 
-	public Metrics() {
-		// Public Constructor
+	Metrics(MetricStore store, int row) {
+		this.store = store;
+		this.row = row;
 	}
 	
 
@@ -42,22 +34,26 @@ public class Metrics {
 	 **/
 	public void calculateSize(ObjectId objectId, ObjectReader reader)
 			throws LargeObjectException,IOException {
-		byte[] data = reader.open(objectId).getBytes();
-		String content = new String(data, StandardCharsets.UTF_8);
-
-		int calcSize = 0;
-		Scanner scanner = new Scanner(content);
-
-		while (scanner.hasNextLine()) {
-			String line = scanner.nextLine();
-			line = line.replaceAll("\\s+", "");
-			if (!(line.startsWith("/") || line.startsWith("*") || line.startsWith("//") || line.startsWith("*/")
-					|| line.equalsIgnoreCase(""))) {
-				calcSize = calcSize + 1;
-			}
+		this.setSize(countSize(objectId, reader));
+	}
+	
+	
+	/**
+	 * Conta le linee di codice del blob, escludendo Commenti e linee vuote
+	 **/
+	public static int countSize(ObjectId objectId, ObjectReader reader)
+			throws LargeObjectException,IOException {
+		ObjectLoader loader = reader.open(objectId);
+		RunMetrics run = RunMetrics.current();
+		run.increment(RunMetrics.BLOBS_INFLATED);
+		run.add(RunMetrics.BYTES_READ, loader.getSize());
+		FlightEvents.addBytesInflated(loader.getSize());
+		if (!loader.isLarge()) {
+			return LocCounter.count(loader.getCachedBytes());
+		}
+		try (ObjectStream stream = loader.openStream()) {
+			return LocCounter.count(stream);
 		}
-		scanner.close();
-		this.setSize(calcSize);
 	}
 	
 	
@@ -71,8 +67,8 @@ public class Metrics {
 			linesDeleted += edit.getEndA() - edit.getBeginA();
 			linesAdded += edit.getEndB() - edit.getBeginB();
 		}
-		this.locTouched += (linesAdded + linesDeleted);
-		this.locAdded += linesAdded;
+		store.columns[MetricStore.LOC_TOUCHED][row] += (linesAdded + linesDeleted);
+		store.columns[MetricStore.LOC_ADDED][row] += linesAdded;
 		calculateMaxLocAdded(linesAdded);
 		calculateAVGLocAdded(linesAdded);
 	}
@@ -84,8 +80,8 @@ public class Metrics {
 	 **/
 	public void calculateAVGLocAdded(int linesAdded) {
 		if (linesAdded!=0) {
-			counterLocAdded++;
-			avgLocAdded = locAdded/counterLocAdded;
+			int counterLocAdded = ++store.columns[MetricStore.COUNTER_LOC_ADDED][row];
+			store.columns[MetricStore.AVG_LOC_ADDED][row] = getLocAdded()/counterLocAdded;
 		}
 	}
 
@@ -93,8 +89,8 @@ public class Metrics {
 	 * Calcola la metrica MaxLocADDED
 	 **/
 	private void calculateMaxLocAdded(int locAdded) {
-		if (locAdded > this.maxLocAdded) {
-			this.maxLocAdded = locAdded;
+		if (locAdded > getMaxLocAdded()) {
+			setMaxLocAdded(locAdded);
 		}
 	}
 	
@@ -103,7 +99,7 @@ public class Metrics {
 	 * Incrementa di 1 il numero di BugFixed in cui è coinvolto
 	 **/
 	public void increaseNumberBugFixed() {
-		this.numberBugFixes ++;
+		store.columns[MetricStore.NUMBER_BUG_FIXES][row]++;
 	}
 	
 	
@@ -111,7 +107,7 @@ public class Metrics {
 	 * Incrementa di 1 il numero di NumberRevisions in cui è coinvolto
 	 **/
 	public void increaseNumberRevisions() {
-		this.numberRevisions ++;
+		store.columns[MetricStore.NUMBER_REVISIONS][row]++;
 	}
 	
 	
@@ -119,8 +115,8 @@ public class Metrics {
 	 * Incrementa il numero di file insieme ai quali è stata committata la classe
 	 **/
 	public void increaseChgSetSize(int chg) {
-		this.counterChgSet++;
-		this.chgSetSize += chg;
+		store.columns[MetricStore.COUNTER_CHG_SET][row]++;
+		store.columns[MetricStore.CHG_SET_SIZE][row] += chg;
 		calculateMaxChgSetSize(chg);
 		calculateAVGChgSetSize();
 	}
@@ -130,8 +126,8 @@ public class Metrics {
 	 * Calcola il numero massimo di ChgSet
 	 **/
 	public void calculateMaxChgSetSize(int chg) {
-		if (chg > maxChgSetSize) {
-			this.maxChgSetSize = chg;
+		if (chg > getMaxChgSetSize()) {
+			setMaxChgSetSize(chg);
 		}
 	}
 	
@@ -140,17 +136,14 @@ public class Metrics {
 	 * Calcola il numero medio di ChgSet
 	 **/
 	public void calculateAVGChgSetSize() {
-		this.avgChgSetSize = this.chgSetSize/counterChgSet;
+		setAvgChgSetSize(getChgSetSize()/getCounterChgSet());
 	}
 	
 	/**
 	 * Calcola il numero di autori che hanno interaggito su una classe C (nella release)
 	 **/
-	public void calculateNAuth(String authorName) {
-		if (!listOfAuthors.contains(authorName)) {
-			nAuth++;
-			listOfAuthors.add(authorName);
-		}
+	public void calculateNAuth(int authorId) {
+		store.addAuthor(row, authorId);
 	}
 	
 	
@@ -158,87 +151,133 @@ public class Metrics {
 	 * Getters & Setters
 	 */
 	public double getAvgLocAdded() {
-		return this.avgLocAdded;
+		return store.columns[MetricStore.AVG_LOC_ADDED][row];
+	}
+
+	public void setAvgLocAdded(int value) {
+		store.columns[MetricStore.AVG_LOC_ADDED][row] = value;
 	}
 
 	public int getLocAdded() {
-		return this.locAdded;
+		return store.columns[MetricStore.LOC_ADDED][row];
+	}
+
+	public void setLocAdded(int value) {
+		store.columns[MetricStore.LOC_ADDED][row] = value;
 	}
-		
+
 	public int getMaxLocAdded() {
-		return this.maxLocAdded;
+		return store.columns[MetricStore.MAX_LOC_ADDED][row];
 	}
-	
+
+	public void setMaxLocAdded(int value) {
+		store.columns[MetricStore.MAX_LOC_ADDED][row] = value;
+	}
+
 	public int getChgSetSize() {
-		return chgSetSize;
+		return store.columns[MetricStore.CHG_SET_SIZE][row];
 	}
-	
-	public void setChgSetSize(int chgSetSize) {
-		this.chgSetSize = chgSetSize;
+
+	public void setChgSetSize(int value) {
+		store.columns[MetricStore.CHG_SET_SIZE][row] = value;
 	}
 
 	public int getNumberBugFixes() {
-		return numberBugFixes;
+		return store.columns[MetricStore.NUMBER_BUG_FIXES][row];
 	}
 
-	public void setNumberBugFixes(int numberBugFixes) {
-		this.numberBugFixes = numberBugFixes;
+	public void setNumberBugFixes(int value) {
+		store.columns[MetricStore.NUMBER_BUG_FIXES][row] = value;
 	}
 
 	public int getNumberRevisions() {
-		return numberRevisions;
+		return store.columns[MetricStore.NUMBER_REVISIONS][row];
 	}
 
-	public void setNumberRevisions(int numberRevisions) {
-		this.numberRevisions = numberRevisions;
+	public void setNumberRevisions(int value) {
+		store.columns[MetricStore.NUMBER_REVISIONS][row] = value;
 	}
 
 	public int getMaxChgSetSize() {
-		return maxChgSetSize;
+		return store.columns[MetricStore.MAX_CHG_SET_SIZE][row];
 	}
 
-	public void setMaxChgSetSize(int maxChgSetSize) {
-		this.maxChgSetSize = maxChgSetSize;
+	public void setMaxChgSetSize(int value) {
+		store.columns[MetricStore.MAX_CHG_SET_SIZE][row] = value;
 	}
 
 	public int getAvgChgSetSize() {
-		return avgChgSetSize;
+		return store.columns[MetricStore.AVG_CHG_SET_SIZE][row];
 	}
 
-	public void setAvgChgSetSize(int avgChgSetSize) {
-		this.avgChgSetSize = avgChgSetSize;
-	}
-	
-	public void setAge(int age) {
-		this.age = age;
+	public void setAvgChgSetSize(int value) {
+		store.columns[MetricStore.AVG_CHG_SET_SIZE][row] = value;
 	}
-	
+
 	public int getAge() {
-		return this.age;
+		return store.columns[MetricStore.AGE][row];
 	}
-	
-	public void setLocTouched(int locTouched) {
-		this.locTouched = locTouched;
+
+	public void setAge(int value) {
+		store.columns[MetricStore.AGE][row] = value;
 	}
-	
+
 	public int getLocTouched() {
-		return this.locTouched;
+		return store.columns[MetricStore.LOC_TOUCHED][row];
 	}
-	
+
+	public void setLocTouched(int value) {
+		store.columns[MetricStore.LOC_TOUCHED][row] = value;
+	}
+
 	public int getSize() {
-		return size;
+		return store.columns[MetricStore.SIZE][row];
 	}
-	
-	public void setSize(int size) {
-		this.size = size;
+
+	public void setSize(int value) {
+		store.columns[MetricStore.SIZE][row] = value;
 	}
 
 	public int getnAuth() {
-		return nAuth;
+		return store.columns[MetricStore.N_AUTH][row];
 	}
 
-	public void setnAuth(int nAuth) {
-		this.nAuth = nAuth;
+	public void setnAuth(int value) {
+		store.columns[MetricStore.N_AUTH][row] = value;
+	}
+
+	public int getCounterLocAdded() {
+		return store.columns[MetricStore.COUNTER_LOC_ADDED][row];
+	}
+
+	public void setCounterLocAdded(int value) {
+		store.columns[MetricStore.COUNTER_LOC_ADDED][row] = value;
+	}
+
+	public int getCounterChgSet() {
+		return store.columns[MetricStore.COUNTER_CHG_SET][row];
+	}
+
+	public void setCounterChgSet(int value) {
+		store.columns[MetricStore.COUNTER_CHG_SET][row] = value;
+	}
+
+	public int[] getAuthorIds() {
+		return Arrays.copyOf(store.authorIds[row], getnAuth());
+	}
+
+	public void setAuthorIds(int[] authorIds) {
+		int[] ids = authorIds.clone();
+		Arrays.sort(ids);
+		store.authorIds[row] = ids;
+		setnAuth(ids.length);
+	}
+
+	public MetricStore getStore() {
+		return store;
+	}
+
+	public int getRow() {
+		return row;
 	}
-	
 }
@@ -8,43 +8,54 @@ import git.GitRelease;
 import utils.PathHandler;
 
 /**
- * Rappresenta una classe relativa al progetto da analizzare
+ * Rappresenta una classe relativa al progetto da analizzare. Le metriche non sono memorizzate nella classe
+ * ma nel MetricStore della release, alla riga metricsRow, e sono accessibili tramite la vista Metrics.
  */
 public class ProjectClass {
-	Logger logger = Logger.getLogger(ProjectClass.class.getName());
-	
+	static Logger logger = Logger.getLogger(ProjectClass.class.getName());
+
 	// Attributi della classe
 	private boolean buggyness = false;
-	
-	public ProjectClass (String path, String name, GitRelease release){
+
+	public ProjectClass (String path, GitRelease release){
 		this.path = path;
-		this.name = name;
 		this.release = release;
 	}
-	
+
 	private String path;
-	private String name;
 	private GitRelease release;
 	private Date dateAdded;
-	private Metrics metrics;
-	
+	private int metricsRow = -1;
+	private ProjectClass next;		// La stessa classe nella release successiva (lineage), null se non esiste
+
 	public void rename(String newPath) {
 		this.setPath(newPath);
-		this.setName(PathHandler.getNameFromPath(newPath));
 	}
-	
+
+	/**
+	 * Ritorna la vista sulle metriche della classe nel MetricStore della release
+	 */
 	public Metrics getMetrics() {
-		return metrics;
+		if (metricsRow < 0) {
+			return null;
+		}
+		return new Metrics(release.getMetricStore(), metricsRow);
 	}
 
+	/**
+	 * Associa alla classe la riga delle metriche in input, che deve appartenere al MetricStore della release
+	 */
 	public void setMetrics(Metrics metrics) {
-		this.metrics = metrics;
+		if (metrics.getStore() != release.getMetricStore()) {
+			throw new IllegalArgumentException("Metrics row does not belong to the release of " + path);
+		}
+		this.metricsRow = metrics.getRow();
 	}
-	
+
 	public Date getDateAdded() {
 		return dateAdded;
 	}
-	
+
 	public void setDateAdded(Date dateAdded) {
 		this.dateAdded = dateAdded;
 	}
@@ -57,12 +68,11 @@ public class ProjectClass {
 		this.path = path;
 	}
 
+	/**
+	 * Il nome viene ricavato dal path, così da non memorizzare una seconda stringa per ogni classe
+	 */
 	public String getName() {
-		return name;
-	}
-
-	public void setName(String name) {
-		this.name = name;
+		return PathHandler.getNameFromPath(path);
 	}
 
 	public GitRelease getRelease() {
@@ -73,6 +83,14 @@ public class ProjectClass {
 		this.release = release;
 	}
 
+	public ProjectClass getNext() {
+		return next;
+	}
+
+	public void setNext(ProjectClass next) {
+		this.next = next;
+	}
+
 	public boolean isBuggy() {
 		return buggyness;
 	}
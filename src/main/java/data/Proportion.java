@@ -6,15 +6,15 @@ import jira.JiraRelease;
 import jira.JiraTicket;
 
 public class Proportion {
-	private static int p = 0;
-	
 	private Proportion() {}
 
 	
 	/**
-	 * Implementazione del metodo "Incremental" per il calcolo di Proportion
+	 * Implementazione del metodo "Incremental" per il calcolo di Proportion.
+	 * Ritorna 0 se nessun ticket ha una IV nota.
 	 **/
 	public static int incremental(List<JiraTicket> tickets) {
+		int p = 0;
 		double sum = 0;
 		int k = 0;
 		int iv;
@@ -46,6 +46,7 @@ public class Proportion {
 		int ov;
 		int fv;
 		int predictedIV;
+		int p = 0;		// Locale: ogni progetto ha il proprio valore di Proportion
 		switch (mode) {
 		
 		case "incremental":
@@ -0,0 +1,129 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+
+/**
+ * Cache della Size (LOC) delle classi indicizzata tramite l'ObjectId del blob Git. Un blob identico
+ * in più release viene quindi letto e contato una sola volta. La cache può essere salvata su disco
+ * e ricaricata nelle esecuzioni successive: la prima riga del file riporta la versione del formato
+ * e quella di LocCounter, ed un file scritto con versioni diverse viene ignorato.
+ */
+public class SizeCache {
+	static Logger logger = Logger.getLogger(SizeCache.class.getName());
+
+	private static final int FORMAT_VERSION = 1;
+	static final String HEADER = "#SizeCache;" + FORMAT_VERSION + ";LocCounter;" + LocCounter.VERSION;
+
+	private Map<ObjectId, Integer> sizes = new ConcurrentHashMap<>();
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong missNanos = new AtomicLong();	// Tempo totale speso per contare le LOC dei blob non in cache
+
+
+	/**
+	 * Ritorna la Size del blob, calcolandola soltanto se il blob non è già presente in cache
+	 */
+	public int getSize(ObjectId blobId, ObjectReader reader) throws IOException {
+		Integer size = sizes.get(blobId);
+		if (size != null) {
+			hits.incrementAndGet();
+			return size;
+		}
+		long start = System.nanoTime();
+		int calcSize = Metrics.countSize(blobId, reader);
+		missNanos.addAndGet(System.nanoTime() - start);
+		misses.incrementAndGet();
+		sizes.put(blobId.copy(), calcSize);
+		return calcSize;
+	}
+
+
+	/**
+	 * Carica la cache da un file "objectId;size". Se il file non esiste o l'intestazione non corrisponde
+	 * a quella corrente la cache resta vuota.
+	 */
+	public void load(String fileName) {
+		File file = new File(fileName);
+		if (!file.exists()) {
+			return;
+		}
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String line = reader.readLine();
+			if (!HEADER.equals(line)) {
+				logger.log(Level.WARNING, "Size cache written with a different format or LOC counter version. Ignoring it.");
+				return;
+			}
+			while ((line = reader.readLine()) != null) {
+				int separator = line.indexOf(';');
+				if (separator == -1 || !ObjectId.isId(line.substring(0, separator))) {
+					continue;
+				}
+				sizes.put(ObjectId.fromString(line.substring(0, separator)), Integer.parseInt(line.substring(separator + 1)));
+			}
+			logger.log(Level.INFO, "Size cache loaded: {0} blobs", sizes.size());
+		} catch (IOException | NumberFormatException e) {
+			logger.log(Level.WARNING, "Size cache not readable, starting empty", e);
+			sizes.clear();
+		}
+	}
+
+
+	/**
+	 * Salva su file tutte le Size presenti in cache
+	 */
+	public void save(String fileName) {
+		try (FileWriter fileWriter = new FileWriter(fileName)) {
+			StringBuilder outputBuilder = new StringBuilder(HEADER + "\n");
+			for (Map.Entry<ObjectId, Integer> e : sizes.entrySet()) {
+				outputBuilder.append(e.getKey().name() + ";" + e.getValue() + "\n");
+			}
+			fileWriter.append(outputBuilder.toString());
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Error in size cache writer", e);
+		}
+	}
+
+
+	/**
+	 * Stampa a schermo hit rate e tempo risparmiato, stimato come numero di hit per il tempo medio
+	 * impiegato a contare un blob non presente in cache
+	 */
+	public void printReport(String projectName) {
+		long totalHits = hits.get();
+		long totalMisses = misses.get();
+		long lookups = totalHits + totalMisses;
+		double hitRate = lookups == 0 ? 0 : (double) totalHits / lookups * 100.0;
+		double avgMissMillis = totalMisses == 0 ? 0 : missNanos.get() / 1e6 / totalMisses;
+		String output = String.format("Size Cache Report (%s)%nLookups: %d%nHits: %d%nHit rate: %.2f%%%nCounting time: %.0f ms%nEstimated time saved: %.0f ms",
+				projectName, lookups, totalHits, hitRate, missNanos.get() / 1e6, totalHits * avgMissMillis);
+		logger.log(Level.INFO, output);
+	}
+
+
+	/*===============================================================================================
+	 * Getters & Setters
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public int size() {
+		return sizes.size();
+	}
+}
@@ -1,11 +1,13 @@
 package dataset;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import utils.CSVHandler;
 import utils.Parameters;
+import utils.RunMetrics;
 import weka.WekaAPI;
 import weka.WekaMetrics;
 import weka.core.Instances;
@@ -26,7 +28,16 @@ public class AnalyzeDataset {
 		
 		// Eseguo Walk Forward per ogni metodo di Feature Selection, Balancing, Sensitivity
 		logger.log(Level.INFO,"Computing results...");
-		List<WekaMetrics> resultList = weka.runWalkForward();
+		List<WekaMetrics> resultList;
+		RunMetrics run = RunMetrics.start(projectName);
+		try {
+			RunMetrics.Phase phase = run.phase(RunMetrics.WALK_FORWARD);
+			resultList = weka.runWalkForward();
+			phase.stop();
+		} finally {
+			run.save(Parameters.OUTPUT_PATH + projectName + Parameters.ANALYZE_METRICS_JSON);
+			RunMetrics.stop();
+		}
 		
 		// Scrivo i risultati dell'analisi all'interno di un file CSV		
 		logger.log(Level.INFO,"Writing analysis report on CSV...");
@@ -35,9 +46,11 @@ public class AnalyzeDataset {
 		logger.log(Level.INFO,"Dataset analysis completed.\nEnd of the program.");
 	}
 	
-	public static void main(String[] args) {
-		AnalyzeDataset analyzer = new AnalyzeDataset();
-		analyzer.analyze(Parameters.BOOKKEEPER);
-		analyzer.analyze(Parameters.SYNCOPE);
+	/**
+	 * Analizza il dataset di tutti i progetti di "projects.json" (o dei progetti predefiniti), in parallelo
+	 */
+	public static void main(String[] args) throws IOException {
+		List<ProjectConfig> projects = ProjectConfig.load(Parameters.PROJECTS_JSON);
+		ProjectDriver.runAll(projects, p -> new AnalyzeDataset().analyze(p.getName()), Parameters.ANALYZE_LOG);
 	}
 }
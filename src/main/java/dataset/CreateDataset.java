@@ -14,27 +14,61 @@ import git.GitRepo;
 import jira.JiraProject;
 import jira.JiraTicket;
 import utils.CSVHandler;
+import utils.CheckpointHandler;
 import utils.Debug;
 import utils.Parameters;
-import utils.PathHandler;
+import utils.RunMetrics;
 
 public class CreateDataset {
 	Logger logger = Logger.getLogger(CreateDataset.class.getName());
 	
 	public void create(String projName) throws GitAPIException, IOException{
-		
-		JiraProject jiraProject = new JiraProject(projName);
-		String gitFolderPath = PathHandler.getGitPath() + projName.toLowerCase();
-		GitRepo repository = new GitRepo(projName.toLowerCase(), gitFolderPath);
+		create(ProjectConfig.defaultFor(projName));
+	}
+	
+	
+	/**
+	 * Crea il dataset del progetto. I tempi delle fasi ed i contatori dell'esecuzione vengono salvati
+	 * in JSON al termine, anche in caso di errore.
+	 */
+	public void create(ProjectConfig project) throws GitAPIException, IOException{
+		RunMetrics run = RunMetrics.start(project.getName());
+		try {
+			createDataset(project, run);
+		} finally {
+			run.save(Parameters.OUTPUT_PATH + project.getName() + Parameters.CREATE_METRICS_JSON);
+			RunMetrics.stop();
+		}
+	}
+	
+	
+	private void createDataset(ProjectConfig project, RunMetrics run) throws GitAPIException, IOException{
+		String projName = project.getName();
+		RunMetrics.Phase phase = run.phase(RunMetrics.JIRA_FETCH);
+		JiraProject jiraProject = new JiraProject(projName, project.getJiraURL());
+		phase.stop();
+		GitRepo repository = new GitRepo(projName.toLowerCase(), project.getRepoPath(), project.getReleaseFilter(), project.getRepoURL());
+		String sizeCachePath = Parameters.OUTPUT_PATH + projName + Parameters.SIZE_CACHE_CSV;
+		if (Parameters.PERSIST_SIZE_CACHE) {
+			repository.getSizeCache().load(sizeCachePath);
+		}
+		String checkpointPath = Parameters.OUTPUT_PATH + projName + Parameters.CHECKPOINT_JSON;
+		if (Parameters.INCREMENTAL_DATASET) {
+			repository.setCheckpoint(CheckpointHandler.load(checkpointPath));
+		}
 
 		
 		// Mantengo soltanto le GitRelease che hanno una corrispettiva release su Jira
 		repository.setCommonReleases(jiraProject.getReleaseList());
-		repository.fetchCommits();					
-		repository.bindRevisionsToReleases();		
+		phase = run.phase(RunMetrics.COMMIT_WALK);
+		repository.fetchCommits();
+		repository.bindRevisionsToReleases();
+		phase.stop();
 		
 		// Ottengo tutti i ticket di Jira. Per ogni ticket senza AV o IV andiamo ad effettuare una predizione con Proportion.
+		phase = run.phase(RunMetrics.JIRA_FETCH);
 		List<JiraTicket> ticketList = jiraProject.getTickets();
+		phase.stop();
 		Proportion.predictIV(Parameters.INCREMENTAL, ticketList, jiraProject.getReleaseList());
 		
 		// Otteniamo la lista di commit di tipo BugFix e la impostiamo nella lista della GitRepo
@@ -42,11 +76,24 @@ public class CreateDataset {
 		repository.setFixCommitList(fixBugCommits);
 		
 		// Calcolo ed imposto tutte le metriche delle classi
+		phase = run.phase(RunMetrics.DIFFING);
 		repository.setMetrics();
+		phase.stop();
+		if (Parameters.INCREMENTAL_DATASET) {
+			CheckpointHandler.save(checkpointPath, repository);
+		}
 		
 		
 		// Genero il dataset
-		generateDataset(projName, repository);
+		phase = run.phase(RunMetrics.EXPORT);
+		generateDataset(projName, repository, project.isNoSnoring());
+		phase.stop();
+		
+		// Report ed eventuale salvataggio della cache delle Size
+		repository.getSizeCache().printReport(projName);
+		if (Parameters.PERSIST_SIZE_CACHE) {
+			repository.getSizeCache().save(sizeCachePath);
+		}
 	}
 	
 	
@@ -54,18 +101,15 @@ public class CreateDataset {
 	 * Ottiene la lista di tutte le classi e genera il dataset
 	 * scrivendo su un file CSV
 	 */
-	public void generateDataset(String projName, GitRepo repo) {
-		switch (projName) {
-		case (Parameters.BOOKKEEPER):
+	public void generateDataset(String projName, GitRepo repo, boolean noSnoring) {
+		if (!noSnoring) {
 			List<ProjectClass> projectClassList = repo.getAllProjectClasses();
 			Debug.countBuggyClass(projectClassList);
 			// Genero il dataset
 			logger.log(Level.INFO,"Writing data on CSV...");
 			CSVHandler.writeClassOnCSV(projectClassList, projName, Parameters.DATASET_CSV);
 			CSVHandler.writeCSVForWeka(projectClassList, projName, Parameters.WEKA_CSV);
-			break;
-			
-		case (Parameters.SYNCOPE):
+		} else {
 			// Genero il dataset senza snoring
 			List<ProjectClass> noSnoringClassList = repo.getNoSnoringClasses();
 			Debug.countBuggyClass(noSnoringClassList);
@@ -74,16 +118,15 @@ public class CreateDataset {
 			logger.log(Level.INFO,"Writing no-snoring data on CSV...");
 			CSVHandler.writeClassOnCSV(noSnoringClassList, projName, Parameters.DATASET_CSV);
 			CSVHandler.writeCSVForWeka(noSnoringClassList, projName, Parameters.WEKA_CSV);
-			break;
-			
-		default:
 		}
 		logger.log(Level.INFO,"CSV write completed succesfullt.\nDataset Created.");
 	}
 	
-	public static void main(String[] args) throws GitAPIException, IOException {
-		CreateDataset datasetCreator = new CreateDataset();
-		datasetCreator.create(Parameters.BOOKKEEPER);
-		datasetCreator.create(Parameters.SYNCOPE);
+	/**
+	 * Crea il dataset di tutti i progetti di "projects.json" (o dei progetti predefiniti), in parallelo
+	 */
+	public static void main(String[] args) throws IOException {
+		List<ProjectConfig> projects = ProjectConfig.load(Parameters.PROJECTS_JSON);
+		ProjectDriver.runAll(projects, p -> new CreateDataset().create(p), Parameters.CREATE_LOG);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+package dataset;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import utils.Parameters;
+import utils.PathHandler;
+
+/**
+ * Configurazione di un progetto da analizzare: chiave del progetto su Jira (usata anche come nome dei
+ * file di output), filtro dei tag delle release, path della copia locale e URL della repository Git,
+ * URL delle Rest API di Jira (anche file://).
+ * La lista dei progetti viene letta dal file "projects.json"; se il file non esiste vengono
+ * utilizzati i progetti predefiniti (BOOKKEEPER e SYNCOPE).
+ */
+public class ProjectConfig {
+	static Logger logger = Logger.getLogger(ProjectConfig.class.getName());
+
+	private String name;
+	private String releaseFilter;
+	private String repoPath;
+	private String repoURL;
+	private String jiraURL;
+	private boolean noSnoring;		// Il dataset contiene soltanto la prima metà delle release (classi non snoring)
+
+	public ProjectConfig(String name, String releaseFilter, String repoPath, String repoURL, boolean noSnoring) {
+		this(name, releaseFilter, repoPath, repoURL, Parameters.JIRA_REST_API, noSnoring);
+	}
+	
+	public ProjectConfig(String name, String releaseFilter, String repoPath, String repoURL, String jiraURL, boolean noSnoring) {
+		this.name = name;
+		this.releaseFilter = releaseFilter;
+		this.repoPath = repoPath;
+		this.repoURL = repoURL;
+		this.jiraURL = jiraURL;
+		this.noSnoring = noSnoring;
+	}
+
+
+	/**
+	 * Ritorna la configurazione predefinita di un progetto: repository apache su GitHub, clonata nella
+	 * cartella indicata da "paths.config"
+	 */
+	public static ProjectConfig defaultFor(String name) throws FileNotFoundException {
+		String releaseFilter = name.equals(Parameters.BOOKKEEPER) ? Parameters.BOOKKEEPER_FILTER_REL : Parameters.SYNCOPE_FILTER_REL;
+		return new ProjectConfig(name, releaseFilter, PathHandler.getGitPath() + name.toLowerCase(),
+				defaultURL(name), name.equals(Parameters.SYNCOPE));
+	}
+
+	private static String defaultURL(String name) {
+		return String.format("https://github.com/%s/%s", Parameters.PROJ_ORG, name.toLowerCase());
+	}
+
+
+	/**
+	 * Carica la lista dei progetti dal file JSON in input. Ogni progetto ha i campi "name" e "releaseFilter";
+	 * "repoPath", "repoURL", "jiraURL" e "noSnoring" sono opzionali.
+	 */
+	public static List<ProjectConfig> load(String fileName) throws IOException {
+		List<ProjectConfig> projects = new ArrayList<>();
+		File file = new File(fileName);
+		if (!file.exists()) {
+			logger.log(Level.INFO, "No project list found. Using default projects.");
+			projects.add(defaultFor(Parameters.BOOKKEEPER));
+			projects.add(defaultFor(Parameters.SYNCOPE));
+			return projects;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			JSONArray projectsJson = new JSONArray(new JSONTokener(reader));
+			for (int i = 0; i < projectsJson.length(); i++) {
+				JSONObject json = projectsJson.getJSONObject(i);
+				String name = json.getString(Parameters.NAME_JSON);
+				projects.add(new ProjectConfig(name,
+						json.getString("releaseFilter"),
+						json.has("repoPath") ? json.getString("repoPath") : PathHandler.getGitPath() + name.toLowerCase(),
+						json.optString("repoURL", defaultURL(name)),
+						json.optString("jiraURL", Parameters.JIRA_REST_API),
+						json.optBoolean("noSnoring", false)));
+			}
+		} catch (JSONException e) {
+			throw new IOException("Project list " + fileName + " not valid", e);
+		}
+		return projects;
+	}
+
+
+	/*===============================================================================================
+	 * Getters & Setters
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public String getReleaseFilter() {
+		return releaseFilter;
+	}
+
+	public String getRepoPath() {
+		return repoPath;
+	}
+
+	public String getRepoURL() {
+		return repoURL;
+	}
+
+	public String getJiraURL() {
+		return jiraURL;
+	}
+
+	public boolean isNoSnoring() {
+		return noSnoring;
+	}
+}
@@ -0,0 +1,106 @@
+package dataset;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+import utils.Parameters;
+
+/**
+ * Esegue un'operazione (creazione o analisi del dataset) su più progetti, in parallelo su un pool di
+ * PROJECT_THREADS thread. Ogni progetto è isolato: ha i propri file di output e di log, e l'errore
+ * di un progetto viene registrato senza interrompere gli altri.
+ */
+public class ProjectDriver {
+	static Logger logger = Logger.getLogger(ProjectDriver.class.getName());
+
+	// Progetto elaborato dal thread corrente. È ereditato dai thread creati durante l'elaborazione
+	// (es. i worker dei diff), così che anche i loro log finiscano nel file del progetto.
+	private static final InheritableThreadLocal<String> currentProject = new InheritableThreadLocal<>();
+
+	/**
+	 * Operazione da eseguire su un singolo progetto
+	 */
+	public interface ProjectTask {
+		void run(ProjectConfig project) throws Exception;
+	}
+
+	private ProjectDriver() {}
+
+
+	/**
+	 * Esegue l'operazione su tutti i progetti. Il log di ogni progetto viene scritto in
+	 * OUTPUT_PATH + nome del progetto + logSuffix. Ritorna i nomi dei progetti falliti.
+	 */
+	public static List<String> runAll(List<ProjectConfig> projects, ProjectTask task, String logSuffix) throws IOException {
+		int threads = Math.max(1, Math.min(Parameters.PROJECT_THREADS, projects.size()));
+		List<Callable<Boolean>> jobs = new ArrayList<>();
+		for (ProjectConfig project : projects) {
+			jobs.add(() -> runProject(project, task, logSuffix));
+		}
+
+		List<String> failed = new ArrayList<>();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Boolean>> results = pool.invokeAll(jobs);
+			for (int i = 0; i < results.size(); i++) {
+				if (!results.get(i).get()) {
+					failed.add(projects.get(i).getName());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Project run interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Project run failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		String output = String.format("Completed %d of %d projects. Failed: %s", projects.size() - failed.size(), projects.size(), failed);
+		logger.log(failed.isEmpty() ? Level.INFO : Level.SEVERE, output);
+		return failed;
+	}
+
+
+	/**
+	 * Esegue l'operazione su un singolo progetto, con un file di log dedicato che riceve soltanto i
+	 * record dei thread del progetto. Ritorna false se il progetto è fallito, anche quando non è
+	 * possibile creare il file di log, senza interrompere gli altri progetti.
+	 */
+	private static boolean runProject(ProjectConfig project, ProjectTask task, String logSuffix) {
+		String name = project.getName();
+		currentProject.set(name);
+		Logger rootLogger = Logger.getLogger("");
+		Handler projectLog = null;
+		try {
+			projectLog = new FileHandler(Parameters.OUTPUT_PATH + name + logSuffix);
+			projectLog.setFormatter(new SimpleFormatter());
+			projectLog.setFilter(r -> name.equals(currentProject.get()));
+			rootLogger.addHandler(projectLog);
+			logger.log(Level.INFO, "Starting project {0}", name);
+			task.run(project);
+			logger.log(Level.INFO, "Project {0} completed", name);
+			return true;
+		} catch (Exception e) {
+			logger.log(Level.SEVERE, "Project " + name + " failed", e);
+			return false;
+		} finally {
+			if (projectLog != null) {
+				rootLogger.removeHandler(projectLog);
+				projectLog.close();
+			}
+			currentProject.remove();
+		}
+	}
+}
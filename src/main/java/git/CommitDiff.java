@@ -0,0 +1,36 @@
+package git;
+
+import java.util.List;
+
+/**
+ * Risultato del calcolo dei diff di un commit: contiene tutto ciò che serve per aggiornare le metriche
+ * (GitDiff dei file Java, con le EditList già calcolate per i MODIFY, e dimensione del change set),
+ * in modo che il calcolo possa avvenire in parallelo e l'aggiornamento in ordine di commit.
+ */
+public class CommitDiff {
+	GitCommit commit;
+	List<GitDiff> javaDiffs;
+	int chgSetSize;
+
+	public CommitDiff(GitCommit commit, List<GitDiff> javaDiffs, int chgSetSize) {
+		this.commit = commit;
+		this.javaDiffs = javaDiffs;
+		this.chgSetSize = chgSetSize;
+	}
+
+
+	/*===============================================================================================
+	 * Getters & Setters
+	 */
+	public GitCommit getCommit() {
+		return commit;
+	}
+
+	public List<GitDiff> getJavaDiffs() {
+		return javaDiffs;
+	}
+
+	public int getChgSetSize() {
+		return chgSetSize;
+	}
+}
@@ -0,0 +1,207 @@
+package git;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import data.AuthorDictionary;
+
+/**
+ * Archivio binario su disco dei metadati dei commit di un range [release più vecchia, release più recente]:
+ * per ogni commit vengono salvati id, parent, data (epoch in secondi), autore (indice nella tabella
+ * degli autori) e chiavi dei ticket citati nel messaggio. Il file viene letto con una sola lettura
+ * sequenziale, evitando il LogCommand sull'intera storia ad ogni avvio. Il file non resta aperto né
+ * mappato dopo load(), e save() scrive su un file temporaneo che sostituisce l'archivio soltanto a
+ * scrittura completata (su Windows un file mappato non può essere sovrascritto). La tabella degli autori contiene i nomi,
+ * convertiti negli ID dell'AuthorDictionary della repository in lettura ed in scrittura.
+ */
+public class CommitStore {
+	static Logger logger = Logger.getLogger(CommitStore.class.getName());
+
+	private static final int MAGIC = 0x47435354;	// "GCST"
+	private static final int VERSION = 1;
+
+	private ObjectId rangeStart;
+	private ObjectId rangeEnd;
+	private List<GitCommit> commits;
+
+	public CommitStore(ObjectId rangeStart, ObjectId rangeEnd, List<GitCommit> commits) {
+		this.rangeStart = rangeStart;
+		this.rangeEnd = rangeEnd;
+		this.commits = commits;
+	}
+
+
+	/**
+	 * Carica l'archivio dal file, registrando gli autori nel dizionario in input. Ritorna null se il file
+	 * non esiste o non è valido.
+	 */
+	public static CommitStore load(String fileName, AuthorDictionary authorDictionary) {
+		File file = new File(fileName);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				logger.log(Level.WARNING, "Commit store format not recognized. Ignoring it.");
+				return null;
+			}
+			ObjectId start = readId(buffer);
+			ObjectId end = readId(buffer);
+
+			int[] authors = new int[buffer.getInt()];
+			for (int i = 0; i < authors.length; i++) {
+				authors[i] = authorDictionary.getId(readString(buffer));
+			}
+
+			int count = buffer.getInt();
+			List<GitCommit> commits = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				ObjectId id = readId(buffer);
+				ObjectId parent = readId(buffer);
+				int time = buffer.getInt();
+				int author = authors[buffer.getInt()];
+				commits.add(toGitCommit(id, parent, time, author, readKeys(buffer)));
+			}
+			return new CommitStore(start, end, commits);
+		} catch (IOException | BufferUnderflowException e) {
+			logger.log(Level.WARNING, "Commit store not readable. Ignoring it.", e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Salva l'archivio su file. Gli ID degli autori dei commit fanno riferimento al dizionario in input.
+	 */
+	public void save(String fileName, AuthorDictionary authorDictionary) {
+		Path target = Paths.get(fileName);
+		Path temp = Paths.get(fileName + ".tmp");
+		Map<Integer, Integer> authorIds = new HashMap<>();
+		List<String> authors = new ArrayList<>();
+		for (GitCommit c : commits) {
+			authorIds.computeIfAbsent(c.getAuthorId(), id -> {
+				authors.add(authorDictionary.getName(id));
+				return authors.size() - 1;
+			});
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeId(out, rangeStart);
+			writeId(out, rangeEnd);
+			out.writeInt(authors.size());
+			for (String a : authors) {
+				writeString(out, a);
+			}
+			out.writeInt(commits.size());
+			for (GitCommit c : commits) {
+				writeId(out, c.getId());
+				writeId(out, c.getParentID());
+				out.writeInt(c.getCommitTime());
+				out.writeInt(authorIds.get(c.getAuthorId()));
+				out.writeShort(c.getTicketKeys().size());
+				for (String key : c.getTicketKeys()) {
+					writeString(out, key);
+				}
+			}
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Error in commit store writer", e);
+			return;
+		}
+		try {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Error in commit store writer", e);
+		}
+	}
+
+
+	private static GitCommit toGitCommit(ObjectId id, ObjectId parent, int epochSeconds, int author, List<String> keys) {
+		GitCommit commit = new GitCommit(id, epochSeconds);
+		commit.setParentID(parent);
+		commit.setAuthorId(author);
+		commit.setTicketKeys(keys);
+		return commit;
+	}
+
+	/**
+	 * Legge le chiavi dei ticket di un commit, con le stesse liste compatte di GitCommit.extractTicketKeys()
+	 */
+	private static List<String> readKeys(ByteBuffer buffer) {
+		int keyCount = buffer.getShort() & 0xFFFF;
+		if (keyCount == 0) {
+			return Collections.emptyList();
+		}
+		if (keyCount == 1) {
+			return Collections.singletonList(readString(buffer));
+		}
+		List<String> keys = new ArrayList<>(keyCount);
+		for (int k = 0; k < keyCount; k++) {
+			keys.add(readString(buffer));
+		}
+		return keys;
+	}
+
+	private static ObjectId readId(ByteBuffer buffer) {
+		byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+		buffer.get(raw);
+		ObjectId id = ObjectId.fromRaw(raw);
+		return id.equals(ObjectId.zeroId()) ? null : id;
+	}
+
+	private static void writeId(DataOutputStream out, ObjectId id) throws IOException {
+		byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+		(id == null ? ObjectId.zeroId() : id).copyRawTo(raw, 0);
+		out.write(raw);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, 0xFFFF);
+		out.writeShort(length);
+		out.write(bytes, 0, length);
+	}
+
+
+	/*===============================================================================================
+	 * Getters & Setters
+	 */
+	public ObjectId getRangeStart() {
+		return rangeStart;
+	}
+
+	public ObjectId getRangeEnd() {
+		return rangeEnd;
+	}
+
+	public List<GitCommit> getCommits() {
+		return commits;
+	}
+}
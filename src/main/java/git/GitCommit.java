@@ -1,54 +1,86 @@
 package git;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.PersonIdent;
 
 import jira.JiraTicket;
 
+/**
+ * Commit della repository, ridotto alle sole informazioni utilizzate durante l'intera esecuzione: il
+ * messaggio non viene mantenuto (le chiavi dei ticket sono estratte durante il walk), l'autore è l'ID
+ * nell'AuthorDictionary della GitRepo e la data è il commit time in secondi.
+ */
 public class GitCommit {
+	static Logger logger = Logger.getLogger(GitCommit.class.getName());
+	
 	ObjectId id;
-	Date date;
-	String message;
 	ObjectId parentID;
+	int commitTime;				// Epoch in secondi, come in RevCommit.getCommitTime()
+	int authorId;				// ID dell'autore nell'AuthorDictionary della GitRepo
 	GitRelease release;
 	JiraTicket ticket;
-	PersonIdent author;
+	List<String> ticketKeys;	// Chiavi dei ticket Jira citate nel messaggio, estratte durante il walk
 	boolean fixCommit;
 	
-	Logger logger = Logger.getLogger(GitCommit.class.getName());
-	
-	public GitCommit(ObjectId id, Date date, String message) {
+	public GitCommit(ObjectId id, int commitTime) {
 		this.id = id;
-		this.date = date;
-		this.message = message;
+		this.commitTime = commitTime;
+		this.ticketKeys = Collections.emptyList();
 		this.fixCommit = false;
 	}
 
 	/**
-	 * Ritorna true se il commit ha nel messaggio il ticketID specificato in input
+	 * Estrae dal messaggio tutte le chiavi di ticket del progetto Jira (es. SYNCOPE-123). Una chiave
+	 * viene riconosciuta soltanto se completa: non deve essere preceduta da una lettera o una cifra
+	 * e comprende tutte le cifre che seguono il trattino. Per i messaggi con nessuna o una sola chiave
+	 * viene ritornata una lista immutabile condivisa o di un solo elemento.
 	 **/
-	public boolean hasTicketName(String ticketName) {
-		int index = this.message.indexOf(ticketName);
-		return (index!=-1);
+	public static List<String> extractTicketKeys(String message, String projectKey) {
+		List<String> keys = new ArrayList<>();
+		String prefix = projectKey + "-";
+		int index = message.indexOf(prefix);
+		while (index != -1) {
+			int end = index + prefix.length();
+			while (end < message.length() && Character.isDigit(message.charAt(end))) {
+				end++;
+			}
+			boolean validStart = index == 0 || !Character.isLetterOrDigit(message.charAt(index - 1));
+			if (validStart && end > index + prefix.length()) {
+				String key = message.substring(index, end);
+				if (!keys.contains(key)) {
+					keys.add(key);
+				}
+			}
+			index = message.indexOf(prefix, index + 1);
+		}
+		if (keys.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (keys.size() == 1) {
+			return Collections.singletonList(keys.get(0));
+		}
+		return keys;
 	}
 	
 	/**
 	 * [DEBUG] Stampa a schermo tutte le informazioni del GitCommit
 	 **/
 	public void print() {
-		String output = String.format("Commit Info%nID: %s%ndate: %s%nmessage: %s%n", this.id, this.date, this.message);
+		String output = String.format("Commit Info%nID: %s%ndate: %s%nauthor: %d%ntickets: %s%n", this.id, this.getDate(), this.authorId, this.ticketKeys);
 		logger.log(Level.INFO,output);
 	}
 	
 	/**
-	 * [DEBUG] Stampa a schermo tutte le informazioni del GitCommit senza messaggio
+	 * [DEBUG] Stampa a schermo tutte le informazioni del GitCommit senza le chiavi dei ticket
 	 **/
 	public void printNoMsg() {
-		String output = String.format("Commit Info%nID: %s%ndate: %s%nfix: %s", this.id, this.date, this.fixCommit);
+		String output = String.format("Commit Info%nID: %s%ndate: %s%nfix: %s", this.id, this.getDate(), this.fixCommit);
 		logger.log(Level.INFO,output);
 	}
 
@@ -56,8 +88,20 @@ public class GitCommit {
 	/*===============================================================================================
 	 * Getters & Setters
 	 */
+	
+	/**
+	 * Ritorna la data del commit, creata ad ogni chiamata a partire dal commit time
+	 */
 	public Date getDate() {
-		return this.date;
+		return new Date(this.commitTime * 1000L);
+	}
+
+	public int getCommitTime() {
+		return commitTime;
+	}
+
+	public void setCommitTime(int commitTime) {
+		this.commitTime = commitTime;
 	}
 
 	public ObjectId getId() {
@@ -75,14 +119,6 @@ public class GitCommit {
 	public ObjectId getParentID() {
 		return this.parentID;
 	}
-
-	public String getMessage() {
-		return message;
-	}
-
-	public void setMessage(String message) {
-		this.message = message;
-	}
 	
 	public GitRelease getRelease() {
 		return release;
@@ -92,10 +128,6 @@ public class GitCommit {
 		this.release = release;
 	}
 
-	public void setDate(Date date) {
-		this.date = date;
-	}
-
 	public JiraTicket getTicket() {
 		return ticket;
 	}
@@ -104,12 +136,20 @@ public class GitCommit {
 		this.ticket = ticket;
 	}
 
-	public PersonIdent getAuthor() {
-		return author;
+	public int getAuthorId() {
+		return authorId;
+	}
+
+	public void setAuthorId(int authorId) {
+		this.authorId = authorId;
+	}
+
+	public List<String> getTicketKeys() {
+		return ticketKeys;
 	}
 
-	public void setAuthor(PersonIdent author) {
-		this.author = author;
+	public void setTicketKeys(List<String> ticketKeys) {
+		this.ticketKeys = ticketKeys;
 	}
 
 	public boolean isFixCommit() {
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.EditList;
 
 import utils.Parameters;
 
@@ -14,11 +15,11 @@ public class GitDiff {
 	String type;
 	String path;
 	List<String> renamePaths;
+	EditList editList;		// Calcolata soltanto per i MODIFY di classi presenti nella release
 	
 	
 	public GitDiff (DiffEntry diff) {
 		this.diff = diff;
-		this.content = diff.toString();
 		parseDiffType();
 		if (isRename()) {
 			parseRename();
@@ -30,87 +31,52 @@ public class GitDiff {
 	
 	
 	/**
-	 * Imposta il vecchio ed il nuovo path di GitDiff per un Diff di tipo RENAME
+	 * Imposta il vecchio ed il nuovo path di GitDiff per un Diff di tipo RENAME. Il path del GitDiff
+	 * è quello nuovo, ovvero quello della classe presente nella release.
 	 */
 	public void parseRename() {
-		String separator = "->";
-		String strDiff = diff.toString();
-		int start1 = strDiff.indexOf(Parameters.RENAME) + Parameters.RENAME.length() +1;
-		int end1 = strDiff.lastIndexOf(separator);
-		String path1 = strDiff.substring(start1,end1);
-		int start2 = strDiff.indexOf(separator) + separator.length();
-		int end2 = strDiff.lastIndexOf("]");
-		String path2 = strDiff.substring(start2,end2);
-		
-		List<String> paths = new ArrayList<>(Arrays.asList(path1,path2));
+		List<String> paths = new ArrayList<>(Arrays.asList(diff.getOldPath(),diff.getNewPath()));
 		this.setRenamePaths(paths);
+		this.setPath(diff.getNewPath());
 	}
 	
 	
 	/**
-	 * Imposta il Path del GitDiff in base al contenuto del Diff
+	 * Imposta il Path del GitDiff in base al tipo di Diff
 	 */
 	public void parseDiffPath() {
-		if (isModify()) {
-			String strDiff = diff.toString();
-			int start = strDiff.indexOf(Parameters.MODIFY) + Parameters.MODIFY.length() +1;
-			int end = strDiff.lastIndexOf("]");
-			this.setPath(strDiff.substring(start,end));
-		}
-		else if (isAdd()) {
-			String strDiff = diff.toString();
-			int start = strDiff.indexOf(Parameters.ADD) + Parameters.ADD.length() +1;
-			int end = strDiff.lastIndexOf("]");
-			this.setPath(strDiff.substring(start,end));
+		if (isModify() || isAdd()) {
+			this.setPath(diff.getNewPath());
 		}
 		else if (isDelete()) {
-			String strDiff = diff.toString();
-			int start = strDiff.indexOf(Parameters.DELETE) + Parameters.DELETE.length() +1;
-			int end = strDiff.lastIndexOf("]");
-			this.setPath(strDiff.substring(start,end));
+			this.setPath(diff.getOldPath());
 		}
 	}
 	
 	
 	/**
-	 * Imposta il tipo di GitDiff in base al contenuto del Diff
+	 * Imposta il tipo di GitDiff in base al ChangeType del Diff
 	 */
 	public void parseDiffType() {
-		if (isModify()) {
+		switch (diff.getChangeType()) {
+		case MODIFY:
 			this.setType(Parameters.MODIFY);
-		}
-		else if (isAdd()) {
+			break;
+		case ADD:
 			this.setType(Parameters.ADD);
-		}
-		else if (isDelete()) {
+			break;
+		case DELETE:
 			this.setType(Parameters.DELETE);
-		}
-		else if (isRename()) {
+			break;
+		case RENAME:
 			this.setType(Parameters.RENAME);
+			break;
+		default:
+			// COPY non viene considerato
 		}
 	}
 	
 
-	/**
-	 * Ritorna soltanto i DiffEntry relativi ad un file Java
-	 */
-	public static List<DiffEntry> filterJavaDiff(List<DiffEntry> diffEntries) {
-		List<DiffEntry> filtered = new ArrayList<>();
-		for (DiffEntry d:diffEntries) {
-			if (isJava(d)) {
-				filtered.add(d);
-			}
-		}
-		return filtered;
-	}
-	
-	public static boolean isJava(DiffEntry diff) {
-		return diff.toString().contains(Parameters.FILTER_FILE_TYPE);
-	}
-	
-	
-	
-	
 	/*===============================================================================================
 	 * Getters & Setters
 	 */
@@ -142,7 +108,13 @@ public class GitDiff {
 		this.renamePaths = renamePaths;
 	}
 
+	/**
+	 * Rappresentazione testuale del DiffEntry, costruita soltanto se richiesta
+	 */
 	public String getContent() {
+		if (content == null) {
+			content = diff.toString();
+		}
 		return content;
 	}
 
@@ -154,16 +126,24 @@ public class GitDiff {
 		return renamePaths;
 	}
 	
+	public EditList getEditList() {
+		return editList;
+	}
+
+	public void setEditList(EditList editList) {
+		this.editList = editList;
+	}
+	
 	public boolean isModify() {
-		return this.content.contains(Parameters.MODIFY);
+		return Parameters.MODIFY.equals(this.type);
 	}
 	public boolean isRename() {
-		return this.content.contains(Parameters.RENAME);
+		return Parameters.RENAME.equals(this.type);
 	}
 	public boolean isAdd() {
-		return this.content.contains(Parameters.ADD);
+		return Parameters.ADD.equals(this.type);
 	}
 	public boolean isDelete() {
-		return this.content.contains(Parameters.DELETE);
+		return Parameters.DELETE.equals(this.type);
 	}
 }
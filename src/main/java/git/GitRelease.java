@@ -1,8 +1,11 @@
 package git;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,11 +15,14 @@ import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
+import data.MetricStore;
 import data.Metrics;
 import data.ProjectClass;
+import data.SizeCache;
+import utils.FlightEvents;
 import utils.Parameters;
-import utils.PathHandler;
 
 public class GitRelease {
 		static Logger logger = Logger.getLogger(GitRelease.class.getName());
@@ -27,6 +33,9 @@ public class GitRelease {
 		private String name;
 		private Date date;
 		private List<ProjectClass> classList;
+		private Map<String, ProjectClass> classIndex;	// Indice delle classi per path
+		private SizeCache sizeCache;					// Cache condivisa delle Size per blob (opzionale)
+		private MetricStore metricStore = new MetricStore();	// Metriche delle classi della release, per colonne
 		
 		public GitRelease(Git git, GitCommit commit, String name, Date date) {
 			this.git = git;
@@ -39,12 +48,18 @@ public class GitRelease {
 		 * Ritorna l'oggetto ProjectClass tramite il suo path
 		 */
 		public ProjectClass getProjectClass(String path) {
+			return this.classIndex.get(path);
+		}
+		
+		
+		/**
+		 * Costruisce l'indice path -> ProjectClass a partire dalla lista delle classi della release
+		 */
+		private void buildClassIndex() {
+			this.classIndex = new HashMap<>(this.classList.size() * 2);
 			for (ProjectClass p:this.classList) {
-				if (p.getPath().equals(path)) {
-					return p;
-				}
+				this.classIndex.putIfAbsent(p.getPath(), p);
 			}
-			return null;
 		}
 		
 		
@@ -53,13 +68,27 @@ public class GitRelease {
 		 * set della lista nel parametro di classe classList
 		 */
 		public void fetchClassList(){
+			try (ObjectReader reader = git.getRepository().newObjectReader()) {
+				fetchClassList(reader);
+			}
+		}
+		
+		
+		/**
+		 * Come fetchClassList(), ma utilizza l'ObjectReader passato in input. Permette ad ogni worker
+		 * del pool di riutilizzare il proprio reader (non thread-safe) su più release.
+		 */
+		public void fetchClassList(ObjectReader reader){
+			FlightEvents.ClassListEvent event = new FlightEvents.ClassListEvent();
+			event.begin();
+			long bytesInflated = FlightEvents.getBytesInflated();
 			this.classList = new ArrayList<>();
+			this.metricStore = new MetricStore();
 			
 	    	ObjectId objectId = null;
 			
-	    	ObjectReader reader = git.getRepository().newObjectReader();
-			RevWalk revWalk = new RevWalk(git.getRepository()); 
-			TreeWalk treeWalk = new TreeWalk(git.getRepository()); 
+			RevWalk revWalk = new RevWalk(reader); 
+			TreeWalk treeWalk = new TreeWalk(reader); 
 			
 			ObjectId commitId = this.getCommit().getId();
 			
@@ -72,26 +101,121 @@ public class GitRelease {
 				
 				while (treeWalk.next()) {
 					String classPath = treeWalk.getPathString();
-				    if (classPath.contains(Parameters.FILTER_FILE_TYPE)) {
-				    	String className = PathHandler.getNameFromPath(classPath);
-				    	ProjectClass projectClass = new ProjectClass(classPath,className,this);	    
-
+				    if (classPath.endsWith(Parameters.FILTER_FILE_TYPE)) {
 				    	objectId = treeWalk.getObjectId(0);
-				    	
-				    	// Calcolo e setto la size della classe
-				    	Metrics metrics = new Metrics();
-				    	metrics.calculateSize(objectId, reader);
-				    	projectClass.setMetrics(metrics);
-				    	classList.add(projectClass);
+				    	classList.add(newProjectClass(classPath, objectId, reader));
 				    }  	    	
 				}	   
 			} catch (Exception e){
 				e.printStackTrace();
 			} finally {
-				reader.close();
+				treeWalk.close();
+				revWalk.dispose();
+			}
+			this.setClassList(classList);
+			commitClassListEvent(event, false, bytesInflated);
+		}
+		
+		
+		/**
+		 * Costruisce la lista delle classi a partire da quella della release precedente, applicando soltanto
+		 * il diff tra i due tree: le classi invariate vengono copiate con la stessa Size, mentre la Size viene
+		 * ricalcolata soltanto per i blob aggiunti o modificati. Il TreeWalk con ANY_DIFF salta i sottoalberi
+		 * identici, e il merge per path mantiene lo stesso ordine del walk completo (ordine dei path di Git).
+		 */
+		public void fetchClassListFrom(GitRelease previous, ObjectReader reader) {
+			FlightEvents.ClassListEvent event = new FlightEvents.ClassListEvent();
+			event.begin();
+			long bytesInflated = FlightEvents.getBytesInflated();
+			List<ProjectClass> previousList = previous.getClassList();
+			List<ProjectClass> deltaList = new ArrayList<>(previousList.size());
+			this.metricStore = new MetricStore(previousList.size());
+			
+			RevWalk revWalk = new RevWalk(reader);
+			TreeWalk treeWalk = new TreeWalk(reader);
+			
+			try {
+				treeWalk.addTree(revWalk.parseCommit(previous.getCommit().getId()).getTree());
+				treeWalk.addTree(revWalk.parseCommit(this.getCommit().getId()).getTree());
+				treeWalk.setRecursive(true);
+				treeWalk.setFilter(TreeFilter.ANY_DIFF);
+				
+				int i = 0;
+				while (treeWalk.next()) {
+					String classPath = treeWalk.getPathString();
+					if (!classPath.endsWith(Parameters.FILTER_FILE_TYPE)) {
+						continue;
+					}
+					
+					// Copio le classi invariate che precedono il path modificato
+					while (i < previousList.size() && previousList.get(i).getPath().compareTo(classPath) < 0) {
+						deltaList.add(copyProjectClass(previousList.get(i++)));
+					}
+					if (i < previousList.size() && previousList.get(i).getPath().equals(classPath)) {
+						i++;
+					}
+					
+					// Classe aggiunta o modificata (le classi cancellate non hanno il path nel nuovo tree)
+					if (treeWalk.getRawMode(1) != 0) {
+						deltaList.add(newProjectClass(classPath, treeWalk.getObjectId(1), reader));
+					}
+				}
+				while (i < previousList.size()) {
+					deltaList.add(copyProjectClass(previousList.get(i++)));
+				}
+			} catch (Exception e){
+				e.printStackTrace();
+			} finally {
+				treeWalk.close();
 				revWalk.dispose();
 			}
-			this.setClassList(classList);	
+			this.setClassList(deltaList);
+			commitClassListEvent(event, true, bytesInflated);
+		}
+		
+		
+		/**
+		 * Registra l'evento JFR dell'estrazione delle classi (bytesBefore: byte decompressi dal thread all'inizio)
+		 */
+		private void commitClassListEvent(FlightEvents.ClassListEvent event, boolean delta, long bytesBefore) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.release = this.name;
+				event.classCount = this.classList.size();
+				event.delta = delta;
+				event.bytesInflated = FlightEvents.getBytesInflated() - bytesBefore;
+				event.commit();
+			}
+		}
+		
+		
+		/**
+		 * Crea la ProjectClass di questa release relativa al blob in input, calcolandone la Size
+		 */
+		private ProjectClass newProjectClass(String classPath, ObjectId objectId, ObjectReader reader) throws IOException {
+	    	ProjectClass projectClass = new ProjectClass(classPath,this);	    
+	    	
+	    	// Calcolo e setto la size della classe
+	    	Metrics metrics = metricStore.newMetrics();
+	    	if (sizeCache != null) {
+	    		metrics.setSize(sizeCache.getSize(objectId, reader));
+	    	} else {
+	    		metrics.calculateSize(objectId, reader);
+	    	}
+	    	projectClass.setMetrics(metrics);
+	    	return projectClass;
+		}
+		
+		
+		/**
+		 * Crea per questa release la copia di una classe invariata rispetto alla release precedente
+		 */
+		private ProjectClass copyProjectClass(ProjectClass previous) {
+			ProjectClass projectClass = new ProjectClass(previous.getPath(), this);
+			Metrics metrics = metricStore.newMetrics();
+			metrics.setSize(previous.getMetrics().getSize());
+			projectClass.setMetrics(metrics);
+			return projectClass;
 		}
 		
 		
@@ -110,11 +234,29 @@ public class GitRelease {
 		
 		public void setClassList(List<ProjectClass> classList) {
 			this.classList = classList;
+			this.metricStore.trimToSize();
+			buildClassIndex();
 		}
 		
 		public List<ProjectClass> getClassList() {
 			return this.classList;
 		}
+		
+		public MetricStore getMetricStore() {
+			return metricStore;
+		}
+		
+		public void setMetricStore(MetricStore metricStore) {
+			this.metricStore = metricStore;
+		}
+		
+		public SizeCache getSizeCache() {
+			return sizeCache;
+		}
+		
+		public void setSizeCache(SizeCache sizeCache) {
+			this.sizeCache = sizeCache;
+		}
 
 		public int getId() {
 			return id;
@@ -1,11 +1,27 @@
 package git;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jgit.api.Git;
@@ -13,23 +29,29 @@ import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.EditList;
 import org.eclipse.jgit.diff.RawTextComparator;
-import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.diff.RenameDetector;
 import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.json.JSONObject;
 
 import api.GitHubAPI;
+import data.AuthorDictionary;
 import data.ProjectClass;
+import data.SizeCache;
 import jira.JiraRelease;
 import jira.JiraTicket;
+import utils.CheckpointHandler;
 import utils.DateHandler;
-import utils.Debug;
+import utils.FlightEvents;
 import utils.Parameters;
+import utils.ProgressReporter;
+import utils.RunMetrics;
 
 public class GitRepo {
 	static Logger logger = Logger.getLogger(GitRepo.class.getName());
@@ -40,16 +62,43 @@ public class GitRepo {
 	List<GitCommit> commitList;
 	List<GitCommit> fixCommitList;
 	List<GitRelease> releaseList;
+	int classListThreads = Parameters.CLASS_LIST_THREADS;
+	int diffThreads = Parameters.DIFF_THREADS;
+	SizeCache sizeCache;
+	AuthorDictionary authors;	// ID degli autori del progetto, usati per la metrica NAuth
+	JSONObject checkpoint;		// Checkpoint della modalità incrementale (null = elaborazione completa)
+	int restoredReleases;		// Release ripristinate dal checkpoint (0 = nessuna)
+	Map<String, Integer> releaseIndex;							// Nome della release -> posizione in releaseList
+	Map<JiraTicket, BitSet> affectedReleases = new HashMap<>();	// Posizioni delle AV di ogni ticket
+	Map<String, BitSet> buggyReleases = new HashMap<>();		// Path -> posizioni delle release in cui la classe è buggy
 	private Git git;
 
 	public GitRepo(String projectName, String local) throws GitAPIException, IOException {
+		this(projectName, local, null, null);
+	}
+	
+	/**
+	 * Crea la repository di un progetto qualsiasi, con il filtro dei tag delle release e l'URL da cui clonarla.
+	 * Se filtro o URL sono null vengono utilizzati quelli predefiniti del progetto.
+	 */
+	public GitRepo(String projectName, String local, String releaseFilter, String repoURL) throws GitAPIException, IOException {
 		this.projectName = projectName;
 		this.local = local;
 		this.commitList = new ArrayList<>();
 		this.fixCommitList = new ArrayList<>();
 		this.releaseList = new ArrayList<>();
-		this.git = GitHubAPI.initializeRepository(projectName, local);
-		this.releaseFilter = fetchReleaseFilter();
+		this.sizeCache = new SizeCache();
+		this.authors = new AuthorDictionary();
+		GitHubAPI.configureObjectCache();
+		if (repoURL == null) {
+			this.git = GitHubAPI.initializeRepository(projectName, local);
+		} else {
+			this.git = GitHubAPI.initializeRepository(repoURL, local, Parameters.BARE_REPOSITORY, Parameters.FROZEN_REPOSITORY, Parameters.CLONE_BRANCH);
+		}
+		if (Parameters.REPACK_REPOSITORY && !Parameters.FROZEN_REPOSITORY) {
+			GitHubAPI.repackRepository(this.git);
+		}
+		this.releaseFilter = releaseFilter == null ? fetchReleaseFilter() : releaseFilter;
 	}
 	
 	public String fetchReleaseFilter() {
@@ -65,37 +114,90 @@ public class GitRepo {
 	/**
 	 * Ritorna la lista di tutti i commit effettuati sulla branch di default. Instanziamo un oggetto
 	 * GitCommit soltanto per i commit presenti anche su Jira, in modo da aumentare le prestazioni.
+	 * Se è presente un CommitStore valido per lo stesso range i commit vengono letti dal disco, ed il walk
+	 * viene eseguito soltanto per i commit aggiunti dopo l'ultima release salvata.
 	 */
-	public void fetchCommits() throws GitAPIException, MissingObjectException, IncorrectObjectTypeException {
+	public void fetchCommits() throws GitAPIException, IOException {
 		GitRelease latest = GitHubAPI.getLatestGitRelease(this.releaseList);
 		GitRelease oldest = GitHubAPI.getOldestGitRelease(this.releaseList);
+		ObjectId latestId = latest.getCommit().getId();
+		ObjectId oldestId = oldest.getCommit().getId();
+		String storePath = Parameters.OUTPUT_PATH + this.projectName.toUpperCase() + Parameters.COMMIT_STORE_BIN;
+		
+		CommitStore store = Parameters.PERSIST_COMMIT_STORE ? CommitStore.load(storePath, this.authors) : null;
+		List<GitCommit> fetched = new ArrayList<>();
+		boolean changed = true;
 		
 		// Prendiamo soltanto i commit delle Release Git che sono anche in Jira
-		LogCommand logCommand = this.git.log();		
-		logCommand = logCommand.addRange(oldest.getCommit().getId(),latest.getCommit().getId());
-		Iterable<RevCommit> logCommits = logCommand.call();
-
-		for (RevCommit c : logCommits) {
-			Date date = DateHandler.getDateFromEpoch(c.getCommitTime() * 1000L);
-			ObjectId parentID = null;
-			
-			GitCommit commit = new GitCommit(c.getId(), date, c.getFullMessage());
-			if (c.getParentCount() != 0) {
-				parentID = c.getParent(0);
-			}
-
-			commit.setParentID(parentID); 
-			commit.setAuthor(c.getAuthorIdent());
-			this.commitList.add(commit);
+		if (store != null && store.getRangeStart().equals(oldestId) && store.getRangeEnd().equals(latestId)) {
+			fetched.addAll(store.getCommits());
+			changed = false;
+		} else if (store != null && store.getRangeStart().equals(oldestId) && isAncestor(store.getRangeEnd(), latestId)) {
+			// Walk dei soli commit successivi all'ultima release salvata, poi i commit già salvati
+			walkCommits(this.git.log().add(latestId).not(oldestId).not(store.getRangeEnd()), fetched);
+			logger.log(Level.INFO, "Commit store updated with {0} new commits", fetched.size());
+			fetched.addAll(store.getCommits());
+		} else {
+			walkCommits(this.git.log().addRange(oldestId, latestId), fetched);
 		}
+		
+		if (Parameters.PERSIST_COMMIT_STORE && changed) {
+			new CommitStore(oldestId, latestId, fetched).save(storePath, this.authors);
+		}
+		this.commitList.addAll(fetched);
 		orderCommitList();
 	}
+	
+	
+	/**
+	 * Esegue il LogCommand in input ed aggiunge i commit ottenuti alla lista. Il corpo di ogni RevCommit
+	 * viene rilasciato appena convertito, così che il walk non trattenga tutti i messaggi fino al termine.
+	 */
+	private void walkCommits(LogCommand logCommand, List<GitCommit> commits) throws GitAPIException {
+		for (RevCommit c : logCommand.call()) {
+			commits.add(toGitCommit(c));
+			c.disposeBody();
+		}
+	}
+	
+	
+	/**
+	 * Verifica che il commit ancestor sia raggiungibile dal commit descendant
+	 */
+	private boolean isAncestor(ObjectId ancestor, ObjectId descendant) throws IOException {
+		try (RevWalk walk = new RevWalk(this.git.getRepository())) {
+			return walk.isMergedInto(walk.parseCommit(ancestor), walk.parseCommit(descendant));
+		} catch (MissingObjectException e) {
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Crea il GitCommit relativo ad un RevCommit, estraendo subito le chiavi dei ticket Jira dal messaggio
+	 * e l'ID dell'autore. Gli id vengono copiati: un RevCommit è esso stesso un ObjectId e tratterrebbe
+	 * corpo, parent e tree del commit per tutta l'esecuzione.
+	 */
+	private GitCommit toGitCommit(RevCommit c) {
+		ObjectId parentID = null;
+		
+		GitCommit commit = new GitCommit(c.copy(), c.getCommitTime());
+		if (c.getParentCount() != 0) {
+			parentID = c.getParent(0).copy();
+		}
 
+		commit.setParentID(parentID); 
+		commit.setAuthorId(this.authors.getId(c.getAuthorIdent().getName()));
+		commit.setTicketKeys(GitCommit.extractTicketKeys(c.getFullMessage(), this.projectName.toUpperCase()));
+		return commit;
+	}
+
+	
 	/**
 	 * Ordina la lista dei commit in base alla data e la setta nel parametro di classe
 	 */
 	public void orderCommitList() {
-		this.commitList.sort(Comparator.comparing(GitCommit::getDate));
+		this.commitList.sort(Comparator.comparingInt(GitCommit::getCommitTime));
 	}
 
 	
@@ -124,19 +226,11 @@ public class GitRepo {
 				continue;
 			}
 			RevCommit c = walk.parseCommit(tag.getObjectId());
-			Date releaseDate = DateHandler.getDateFromEpoch(c.getCommitTime() * 1000L);
-			
-			ObjectId parentID = null;
-			if (c.getParentCount() != 0) {
-				parentID = c.getParent(0);
-			}
-
-
-			GitCommit gitCommit = new GitCommit(c.getId(), releaseDate, c.getFullMessage());
-			gitCommit.setParentID(parentID); 
-			gitCommit.setAuthor(c.getAuthorIdent());
+			GitCommit gitCommit = toGitCommit(c);
+			Date releaseDate = gitCommit.getDate();
 			
 			GitRelease release = new GitRelease(this.git, gitCommit, releaseName, releaseDate);
+			release.setSizeCache(this.sizeCache);
 			fetchedReleases.add(release);
 		
 		}
@@ -150,7 +244,14 @@ public class GitRepo {
 	 * prima release.
 	 */
 	public void setDefaultAdditionDates(List<GitRelease> releases) {
-		Date oldest = GitHubAPI.getOldestGitRelease(releases).getDate();
+		setDefaultAdditionDates(releases, GitHubAPI.getOldestGitRelease(releases).getDate());
+	}
+	
+	
+	/**
+	 * Imposta come data di aggiunta di ogni classe delle release in input la data specificata
+	 */
+	public void setDefaultAdditionDates(List<GitRelease> releases, Date oldest) {
 		for (GitRelease r:releases) {
 			for (ProjectClass p:r.getClassList()) {
 				p.setDateAdded(oldest);
@@ -184,50 +285,85 @@ public class GitRepo {
 
 	
 	/**
-	 * Assegna a tutti i commit della repository la relativa release, iterando il metodo getRevisionsBetweenTwoReleases()
+	 * Assegna a tutti i commit della repository la relativa release, ovvero la prima release con data
+	 * successiva o uguale a quella del commit (stessa regola di getRevisionsBetweenTwoReleases()).
+	 * Le date delle release, ordinate, vengono salvate come long e per ogni commit si effettua una
+	 * ricerca binaria, evitando di scorrere tutti i commit per ogni release.
 	 */
 	public void bindRevisionsToReleases() {
-		GitRelease start = null;
-		GitRelease end = null;
-
-		// Primo passo dell'algoritmo per la prima release
-		end = this.releaseList.get(0);
-		getRevisionsBetweenTwoReleases(null, end);
+		int size = this.releaseList.size();
+		long[] releaseTimes = new long[size];
+		for (int i = 0; i < size; i++) {
+			releaseTimes[i] = this.releaseList.get(i).getDate().getTime();
+		}
 
-		// Passo iterativo per le restanti release
-		for (int i = 0; i < releaseList.size() - 1; i++) {
-			start = this.releaseList.get(i);
-			end = this.releaseList.get(i + 1);
-			this.getRevisionsBetweenTwoReleases(start, end);
+		for (GitCommit c : this.commitList) {
+			long commitTime = c.getCommitTime() * 1000L;
+			if (commitTime <= 0) {
+				continue;
+			}
+			int index = lowerBound(releaseTimes, commitTime);
+			if (index < size) {
+				c.setRelease(this.releaseList.get(index));
+			}
 		}
 	}
+	
+	
+	/**
+	 * Ritorna l'indice del primo elemento dell'array ordinato maggiore o uguale a key (size se non esiste)
+	 */
+	private static int lowerBound(long[] sorted, long key) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 
 	
 	/**
 	 * Vengono mantenuti soltanto i commit di Git che hanno nel messaggio l'id del
 	 * Ticket di Jira. I JiraTicket che non hanno una corrispondenza vengono ora RIMOSSI dalla lista.
 	 * Ad ogni commit di tipo FixBug viene settato il riferimento al relativo JiraTicket.
+	 * Le chiavi dei ticket citate da ogni commit sono già state estratte durante il walk, quindi basta
+	 * un lookup per chiave; ad ogni ticket viene associato il primo commit (in ordine di data) che lo cita.
 	 */
 	public List<GitCommit> filterCommits(List<JiraTicket> tickets) {
 		List<GitCommit> filtered = new ArrayList<>();
-		boolean founded = false;
+		Map<String, Integer> ticketIndex = new HashMap<>();
+		for (int i = 0; i < tickets.size(); i++) {
+			ticketIndex.putIfAbsent(tickets.get(i).getName(), i);
+		}
+		
+		GitCommit[] firstCommit = new GitCommit[tickets.size()];
+		for (GitCommit c : this.commitList) {
+			for (String key : c.getTicketKeys()) {
+				Integer index = ticketIndex.get(key);
+				if (index != null && firstCommit[index] == null) {
+					firstCommit[index] = c;
+				}
+			}
+		}
 
 		Iterator<JiraTicket> iterator = tickets.iterator();
+		int index = 0;
 		while (iterator.hasNext()) {
 			JiraTicket t = iterator.next();
-			for (GitCommit c : this.commitList) {
-				if (c.hasTicketName(t.getName())) {
-					filtered.add(c);
-					c.setFixCommit(true);
-					c.setTicket(t);
-					founded = true;
-					break;
-				}
-			}
-			if (!founded) {			// se il ticket non ha un relativo commit su Git, viene rimosso dalla lista di JiraTickets
+			GitCommit c = firstCommit[index++];
+			if (c == null) {			// se il ticket non ha un relativo commit su Git, viene rimosso dalla lista di JiraTickets
 				iterator.remove();
+				continue;
 			}
-			founded = false;
+			filtered.add(c);
+			c.setFixCommit(true);
+			c.setTicket(t);
 		}
 		return filtered;
 	}
@@ -240,12 +376,13 @@ public class GitRepo {
 	 */
 	public void setCommonReleases(List<JiraRelease> jiraReleases) throws IOException {
 		List<GitRelease> commonReleases = new ArrayList<>();
+		RunMetrics.Phase phase = RunMetrics.current().phase(RunMetrics.RELEASE_FETCH);
 		List<GitRelease> gitReleases = fetchReleases();
+		phase.stop();
 
 		for (JiraRelease jR : jiraReleases) {
 			for (GitRelease gR : gitReleases) {
 				if (gR.getName().equals(jR.getName())) {
-					gR.fetchClassList();
 					commonReleases.add(gR);
 					jR.setReleaseDate(DateHandler.convertToLocalDate(gR.getDate()));
 					this.commitList.add(gR.getCommit());
@@ -262,8 +399,151 @@ public class GitRepo {
 			jiraReleases.get(i).setID(i + 1);
 		}
 		
-		setDefaultAdditionDates(commonReleases);
+		// In modalità incrementale le release già elaborate vengono ripristinate dal checkpoint, insieme ai bitset della buggyness
+		int restored = 0;
+		if (this.checkpoint != null) {
+			restored = CheckpointHandler.restoreReleases(this.checkpoint, commonReleases, this.authors);
+			if (restored > 0) {
+				this.buggyReleases.putAll(CheckpointHandler.restoreBuggyReleases(this.checkpoint, commonReleases));
+			}
+		}
+		this.restoredReleases = restored;
+		List<GitRelease> newReleases = commonReleases.subList(restored, commonReleases.size());
+		phase = RunMetrics.current().phase(RunMetrics.CLASS_EXTRACTION);
+		extractClassLists(newReleases, restored > 0 ? commonReleases.get(restored - 1) : null);
+		phase.stop();
+		setDefaultAdditionDates(newReleases, GitHubAPI.getOldestGitRelease(commonReleases).getDate());
+		buildLineage(commonReleases);
+		
+		// Le date di aggiunta già note nell'ultima release ripristinata proseguono nelle nuove release
+		if (restored > 0) {
+			for (ProjectClass p : commonReleases.get(restored - 1).getClassList()) {
+				propagateAdditionDate(p.getNext(), p.getDateAdded());
+			}
+		}
 		this.releaseList = commonReleases;
+		this.releaseIndex = null;
+	}
+
+	
+	/**
+	 * Collega ogni classe alla classe con lo stesso path nella release successiva (ordinate per data),
+	 * costruendo per ogni path una catena attraverso le release. I rename vengono collegati
+	 * successivamente, durante l'analisi dei diff.
+	 */
+	public void buildLineage(List<GitRelease> releases) {
+		for (int i = 1; i < releases.size(); i++) {
+			GitRelease next = releases.get(i);
+			for (ProjectClass p : releases.get(i - 1).getClassList()) {
+				p.setNext(next.getProjectClass(p.getPath()));
+			}
+		}
+	}
+	
+	
+	/**
+	 * Imposta la data di aggiunta su tutta la catena che parte dalla classe in input
+	 */
+	private static void propagateAdditionDate(ProjectClass start, Date dateAdded) {
+		for (ProjectClass p = start; p != null; p = p.getNext()) {
+			p.setDateAdded(dateAdded);
+		}
+	}
+	
+	
+	/**
+	 * Collega al lineage un rename avvenuto tra la release precedente e quella del commit: la classe con il
+	 * vecchio path nella release precedente prosegue con la classe rinominata, che ne eredita la data di aggiunta
+	 * (insieme a tutte le release successive). Il collegamento avviene soltanto se il vecchio path non
+	 * prosegue già e se il nuovo path non esisteva nella release precedente.
+	 */
+	private void linkRename(ProjectClass renamed, String oldPath) {
+		int index = this.releaseList.indexOf(renamed.getRelease());
+		if (index <= 0) {
+			return;
+		}
+		GitRelease previous = this.releaseList.get(index - 1);
+		ProjectClass oldClass = previous.getProjectClass(oldPath);
+		if (oldClass == null || oldClass.getNext() != null || previous.getProjectClass(renamed.getPath()) != null) {
+			return;
+		}
+		oldClass.setNext(renamed);
+		propagateAdditionDate(renamed, oldClass.getDateAdded());
+	}
+
+	
+	/**
+	 * Estrae la lista delle classi delle release in input (ordinate per data), in modalità delta a partire
+	 * dalla release precedente se DELTA_CLASS_LISTS è attivo
+	 */
+	private void extractClassLists(List<GitRelease> releases, GitRelease previous) throws IOException {
+		if (Parameters.DELTA_CLASS_LISTS) {
+			fetchClassListsDelta(releases, previous);
+		} else {
+			fetchClassLists(releases);
+		}
+	}
+
+	
+	/**
+	 * Estrae la lista delle classi di tutte le release in input. Le release sono indipendenti tra loro, quindi
+	 * vengono distribuite su un pool di classListThreads worker, ognuno con il proprio ObjectReader.
+	 */
+	public void fetchClassLists(List<GitRelease> releases) throws IOException {
+		int threads = Math.min(this.classListThreads, releases.size());
+		if (threads <= 1) {
+			for (GitRelease r : releases) {
+				r.fetchClassList();
+			}
+			return;
+		}
+		
+		Queue<GitRelease> pending = new ConcurrentLinkedQueue<>(releases);
+		List<Callable<Void>> workers = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			workers.add(() -> {
+				try (ObjectReader reader = this.git.getRepository().newObjectReader()) {
+					GitRelease r;
+					while ((r = pending.poll()) != null) {
+						r.fetchClassList(reader);
+					}
+				}
+				return null;
+			});
+		}
+		
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (Future<Void> f : pool.invokeAll(workers)) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Class list extraction interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Class list extraction failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	
+	/**
+	 * Estrae la lista delle classi delle release in input (ordinate per data) in modalità delta: soltanto
+	 * la prima release senza predecessore viene visitata completamente, le successive vengono costruite
+	 * applicando il diff dalla release precedente. Le release vengono quindi elaborate in sequenza.
+	 */
+	public void fetchClassListsDelta(List<GitRelease> releases, GitRelease previous) {
+		try (ObjectReader reader = this.git.getRepository().newObjectReader()) {
+			for (GitRelease r : releases) {
+				if (previous == null) {
+					r.fetchClassList(reader);
+				} else {
+					r.fetchClassListFrom(previous, reader);
+				}
+				previous = r;
+			}
+		}
 	}
 
 	
@@ -287,25 +567,94 @@ public class GitRepo {
 	 * @throws GitAPIException 
 	 */
 	public void calcMetricsFromDiff(GitCommit commit, GitCommit previous) throws IOException {
-		GitDiff gitDiff;
-		GitRelease releaseClass;
-		String pathClass;
-		
+		try (DiffFormatter diffFormatter = newDiffFormatter()) {
+			applyDiff(computeDiff(commit, previous, diffFormatter));
+		}
+	}
+	
+	
+	/**
+	 * Crea un DiffFormatter configurato per il calcolo delle metriche. Non è thread-safe, quindi ogni
+	 * worker deve utilizzarne uno proprio.
+	 */
+	public DiffFormatter newDiffFormatter() {
 		DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
 			diffFormatter.setRepository(git.getRepository());
 			diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
+			diffFormatter.setDetectRenames(Parameters.DETECT_RENAMES);
+		if (Parameters.DETECT_RENAMES) {
+			RenameDetector renameDetector = diffFormatter.getRenameDetector();
+			renameDetector.setRenameScore(Parameters.RENAME_SCORE);
+			renameDetector.setRenameLimit(Parameters.RENAME_LIMIT);
+		}
+		return diffFormatter;
+	}
+	
+	
+	/**
+	 * Calcola i diff tra il commit ed il suo predecessore, senza modificare alcuna metrica. Le EditList
+	 * vengono calcolate qui per i soli MODIFY di classi presenti nella release del commit.
+	 */
+	public CommitDiff computeDiff(GitCommit commit, GitCommit previous, DiffFormatter diffFormatter) throws IOException {
+		FlightEvents.CommitDiffEvent event = new FlightEvents.CommitDiffEvent();
+		event.begin();
 		ObjectId origin = commit.getParentID();
 		if (previous != null) {
 			origin = previous.getId();
 		}
-		List<DiffEntry> diffEntries = diffFormatter.scan(origin, commit.getId());
-		List<DiffEntry> javaDiffs = GitDiff.filterJavaDiff(diffEntries);
-		diffFormatter.flush();
-		diffFormatter.close();
-		int chgSetSize = diffEntries.size();
+		
+		// Il filtro scarta i file non Java già nel TreeWalk, contando comunque tutti i file modificati
+		JavaDiffFilter javaFilter = new JavaDiffFilter();
+		diffFormatter.setPathFilter(javaFilter);
+		List<DiffEntry> javaDiffs = diffFormatter.scan(origin, commit.getId());
+		if (diffFormatter.isDetectRenames() && diffFormatter.getRenameDetector().isOverRenameLimit()) {
+			String output = String.format("Rename limit exceeded in commit %s (%d Java diffs): only exact renames detected",
+					commit.getId().name(), javaDiffs.size());
+			logger.log(Level.WARNING, output);
+		}
+		List<GitDiff> gitDiffs = new ArrayList<>(javaDiffs.size());
+		int editCount = 0;
+		int chgSetSize = javaFilter.getChangedFiles();
 		
 		for (DiffEntry d : javaDiffs) {
-			gitDiff = new GitDiff(d);						
+			// Il filtro conta DELETE ed ADD prima della rename detection: una RENAME è un solo file del change set
+			if (d.getChangeType() == DiffEntry.ChangeType.RENAME) {
+				chgSetSize--;
+			}
+			GitDiff gitDiff = new GitDiff(d);
+			if (gitDiff.isModify() && commit.getRelease().getProjectClass(gitDiff.getPath()) != null) {
+				gitDiff.setEditList(diffFormatter.toFileHeader(d).toEditList());
+				editCount += gitDiff.getEditList().size();
+			}
+			gitDiffs.add(gitDiff);
+		}
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.commitId = commit.getId().name();
+			event.diffCount = gitDiffs.size();
+			event.editCount = editCount;
+			event.chgSetSize = chgSetSize;
+			event.commit();
+		}
+		return new CommitDiff(commit, gitDiffs, chgSetSize);
+	}
+	
+	
+	/**
+	 * Aggiorna le metriche delle classi toccate dal commit a partire dai diff già calcolati.
+	 * Deve essere eseguito in ordine di commit.
+	 */
+	public void applyDiff(CommitDiff commitDiff) {
+		GitRelease releaseClass;
+		String pathClass;
+		GitCommit commit = commitDiff.getCommit();
+		int chgSetSize = commitDiff.getChgSetSize();
+		RunMetrics run = RunMetrics.current();
+		run.increment(RunMetrics.COMMITS);
+		run.add(RunMetrics.DIFFS, commitDiff.getJavaDiffs().size());
+		
+		for (GitDiff gitDiff : commitDiff.getJavaDiffs()) {
 			releaseClass = commit.getRelease();
 			pathClass = gitDiff.getPath();
 
@@ -319,9 +668,12 @@ public class GitRepo {
 			
 			// Gestione del Rename
 			if (gitDiff.isRename()) {
-				String oldPath = d.getOldPath();
+				String oldPath = gitDiff.getDiff().getOldPath();
 				ProjectClass oldProjectClass = commit.getRelease().getProjectClass(oldPath);
-				projectClass.setMetrics(oldProjectClass.getMetrics());
+				if (oldProjectClass != null) {
+					projectClass.setMetrics(oldProjectClass.getMetrics());
+				}
+				linkRename(projectClass, oldPath);
 				
 				if (commit.isFixCommit()) {
 					setBuggynessWithAV(commit, oldPath);
@@ -335,8 +687,7 @@ public class GitRepo {
 			
 			// Mi calcolo la LOC_TOUCHED solo per le modifiche su una classe
 			if (gitDiff.isModify()) {
-				EditList editList = diffFormatter.toFileHeader(d).toEditList();
-				projectClass.getMetrics().calculateLocTouched(editList);
+				projectClass.getMetrics().calculateLocTouched(gitDiff.getEditList());
 			}
 			
 			// Se il commit è di tipo fixBug setto la buggyness e aumento il numero di commit FixBug
@@ -348,44 +699,132 @@ public class GitRepo {
 			// Set del chgSetSize && numberRevisions a prescindere dal tipo di Diff
 			projectClass.getMetrics().increaseChgSetSize(chgSetSize);
 			projectClass.getMetrics().increaseNumberRevisions();
-			projectClass.getMetrics().calculateNAuth(commit.getAuthor().getName());
+			projectClass.getMetrics().calculateNAuth(commit.getAuthorId());
 		}
 	}
 
 	
 	/**
-	 * Imposta la buggyness di una classe in tutte le Affected Versions. Viene settata la buggyness partendo
-	 * dall'ultima AV (versione precedente al Fix) fino alla prima AV (injected version)
+	 * Applica soltanto gli effetti di un fix commit sulle classi toccate (buggyness e numero di bug fix),
+	 * come applyDiff(). Utilizzata per i commit già elaborati che nel frattempo sono diventati fix commit.
+	 */
+	private void applyFix(CommitDiff commitDiff) {
+		GitCommit commit = commitDiff.getCommit();
+		for (GitDiff gitDiff : commitDiff.getJavaDiffs()) {
+			ProjectClass projectClass = commit.getRelease().getProjectClass(gitDiff.getPath());
+			if (projectClass == null) {
+				continue;
+			}
+			if (gitDiff.isRename()) {
+				setBuggynessWithAV(commit, gitDiff.getDiff().getOldPath());
+			}
+			setBuggynessWithAV(commit, gitDiff.getPath());
+			projectClass.getMetrics().increaseNumberBugFixed();
+		}
+	}
+
+	
+	/**
+	 * Imposta la buggyness di una classe in tutte le Affected Versions. Le release buggy vengono segnate
+	 * nel bitset del path, in un'unica operazione per fix; i flag delle ProjectClass vengono impostati
+	 * da materializeBuggyness() al termine del calcolo delle metriche.
 	 */
 	public void setBuggynessWithAV(GitCommit fixCommit,String pathClass) {
-		JiraTicket fixTicket = fixCommit.getTicket();
-		List<JiraRelease> affectedVersions = fixTicket.getAffectedVersions();
-		
-		for (JiraRelease av:affectedVersions) {
-			GitRelease gitAv = getReleaseByName(av.getName());
-			ProjectClass projClass = gitAv.getProjectClass(pathClass);
-			if (projClass!=null) {
-				projClass.setBuggy(true);
+		BitSet affected = this.affectedReleases.computeIfAbsent(fixCommit.getTicket(), this::getAffectedReleases);
+		if (!affected.isEmpty()) {
+			this.buggyReleases.computeIfAbsent(pathClass, k -> new BitSet()).or(affected);
+		}
+	}
+	
+	
+	/**
+	 * Ritorna i nomi delle release di releaseList che sono Affected Versions del ticket del fix commit
+	 */
+	public List<String> getAffectedReleaseNames(GitCommit fixCommit) {
+		BitSet affected = this.affectedReleases.computeIfAbsent(fixCommit.getTicket(), this::getAffectedReleases);
+		List<String> names = new ArrayList<>(affected.cardinality());
+		for (int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i + 1)) {
+			names.add(this.releaseList.get(i).getName());
+		}
+		return names;
+	}
+	
+	
+	/**
+	 * Ritorna le posizioni in releaseList delle Affected Versions del ticket. Dopo fixAvList() le AV sono
+	 * l'intervallo contiguo [IV,FV) e vengono segnate con un solo range; altrimenti una ad una.
+	 */
+	private BitSet getAffectedReleases(JiraTicket ticket) {
+		List<JiraRelease> affectedVersions = ticket.getAffectedVersions();
+		int[] positions = new int[affectedVersions.size()];
+		int found = 0;
+		for (JiraRelease av : affectedVersions) {
+			Integer position = getReleaseIndex().get(av.getName());
+			if (position != null) {
+				positions[found++] = position;
 			}
 		}
+		BitSet affected = new BitSet();
+		if (found == 0) {
+			return affected;
+		}
+		Arrays.sort(positions, 0, found);
+		if (positions[found - 1] - positions[0] + 1 == found) {
+			affected.set(positions[0], positions[found - 1] + 1);
+		} else {
+			for (int i = 0; i < found; i++) {
+				affected.set(positions[i]);
+			}
+		}
+		return affected;
 	}
 	
 	
+	/**
+	 * Imposta il flag buggy delle ProjectClass a partire dai bitset dei path. I flag vengono prima azzerati,
+	 * così che rispecchino soltanto i bitset (compresi quelli ripristinati dal checkpoint).
+	 */
+	public void materializeBuggyness() {
+		for (GitRelease r : this.releaseList) {
+			for (ProjectClass p : r.getClassList()) {
+				p.setBuggy(false);
+			}
+		}
+		for (Map.Entry<String, BitSet> entry : this.buggyReleases.entrySet()) {
+			BitSet bits = entry.getValue();
+			for (int i = bits.nextSetBit(0); i >= 0 && i < this.releaseList.size(); i = bits.nextSetBit(i + 1)) {
+				ProjectClass projClass = this.releaseList.get(i).getProjectClass(entry.getKey());
+				if (projClass != null) {
+					projClass.setBuggy(true);
+				}
+			}
+		}
+	}
+	
 	
 	/**
-	 * Imposta l'addition di una classe come la data del commit dove è stato effettuato
-	 * l'ADD della classe. Si esegue un ciclo su tutte le versioni successive per impostare la stessa
-	 * data di aggiunta per la stessa classe nelle altre releases.
+	 * Ritorna l'indice nome della release -> posizione in releaseList, costruendolo al primo utilizzo.
+	 * In caso di nomi duplicati vale la prima release, come in getReleaseByName().
 	 */
-	public void setAdditionDateOverReleases(ProjectClass projectClass,GitCommit commit) {
-		projectClass.setDateAdded(commit.getDate());
-		List<GitRelease> newest = getReleasesFrom(commit.getRelease());
-		for (GitRelease r:newest) {
-			ProjectClass p = r.getProjectClass(projectClass.getPath());
-			if (p!=null) {
-				p.setDateAdded(commit.getDate());
+	private Map<String, Integer> getReleaseIndex() {
+		if (this.releaseIndex == null) {
+			this.releaseIndex = new HashMap<>(this.releaseList.size() * 2);
+			for (int i = 0; i < this.releaseList.size(); i++) {
+				this.releaseIndex.putIfAbsent(this.releaseList.get(i).getName(), i);
 			}
 		}
+		return this.releaseIndex;
+	}
+	
+	
+	
+	/**
+	 * Imposta l'addition di una classe come la data del commit dove è stato effettuato
+	 * l'ADD della classe. La stessa data viene impostata lungo il lineage della classe,
+	 * cioè per la stessa classe in tutte le release successive.
+	 */
+	public void setAdditionDateOverReleases(ProjectClass projectClass,GitCommit commit) {
+		propagateAdditionDate(projectClass, commit.getDate());
 	}
 	
 	
@@ -495,17 +934,166 @@ public class GitRepo {
 	/**
 	 * Calcola ed imposta tutte le metriche relative alle classi del progetto. Esegue il metodo
 	 * calcMetricsFromDiff() passando in input tutti i commit del progetto.
+	 * I diff vengono calcolati in parallelo da diffThreads worker, mentre l'aggiornamento delle metriche
+	 * avviene su questo thread in ordine di commit. Al più diffThreads * DIFF_QUEUE_FACTOR commit
+	 * sono in lavorazione contemporaneamente.
 	 **/
 	public void setMetrics() throws IOException {
-		double actual = 1;
-		double total = this.commitList.size();
+		List<GitCommit> commits = this.commitList;
 		GitCommit previous = null;
-		for (GitCommit c : this.commitList) {
-			Debug.printPercentage(actual,total);
+		
+		// In modalità incrementale si riparte dal primo commit non ancora elaborato, se il checkpoint è ancora valido
+		if (this.restoredReleases > 0) {
+			int processed = resumeFromCheckpoint();
+			if (processed == -1) {
+				discardCheckpoint();
+			} else {
+				previous = this.commitList.get(processed - 1);
+				commits = this.commitList.subList(processed, this.commitList.size());
+				String output = String.format("Incremental mode: %d new commits to analyze", commits.size());
+				logger.log(Level.INFO, output);
+			}
+		}
+		
+		if (this.diffThreads <= 1) {
+			setMetricsSerial(commits, previous);
+			materializeBuggyness();
+			return;
+		}
+		
+		ProgressReporter progress = new ProgressReporter("Commit Analysis", commits.size());
+		List<DiffFormatter> formatters = Collections.synchronizedList(new ArrayList<>());
+		ThreadLocal<DiffFormatter> workerFormatter = ThreadLocal.withInitial(() -> {
+			DiffFormatter diffFormatter = newDiffFormatter();
+			formatters.add(diffFormatter);
+			return diffFormatter;
+		});
+		ExecutorService pool = Executors.newFixedThreadPool(this.diffThreads);
+		Deque<Future<CommitDiff>> pending = new ArrayDeque<>();
+		int window = this.diffThreads * Parameters.DIFF_QUEUE_FACTOR;
+		
+		try {
+			for (GitCommit c : commits) {
+				GitCommit origin = previous;
+				pending.add(pool.submit(() -> computeDiff(c, origin, workerFormatter.get())));
+				previous = c;
+				if (pending.size() >= window) {
+					applyDiff(pending.poll().get());
+					progress.step();
+				}
+			}
+			while (!pending.isEmpty()) {
+				applyDiff(pending.poll().get());
+				progress.step();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Diff computation interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Diff computation failed", e.getCause());
+		} finally {
+			// I worker ancora attivi stanno utilizzando i propri DiffFormatter: vengono chiusi soltanto dopo
+			// la terminazione del pool (se l'attesa è interrotta restano aperti, invece di essere chiusi in uso)
+			pool.shutdownNow();
+			if (awaitTermination(pool)) {
+				for (DiffFormatter f : formatters) {
+					f.close();
+				}
+			}
+		}
+		materializeBuggyness();
+	}
+	
+	
+	/**
+	 * Attende la terminazione di tutti i worker del pool. Ritorna false se l'attesa viene interrotta.
+	 **/
+	private static boolean awaitTermination(ExecutorService pool) {
+		try {
+			while (!pool.awaitTermination(Parameters.PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				logger.log(Level.INFO, "Waiting for diff workers to terminate");
+			}
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Versione seriale di setMetrics(), utilizzata quando diffThreads è pari ad 1
+	 **/
+	private void setMetricsSerial(List<GitCommit> commits, GitCommit previous) throws IOException {
+		ProgressReporter progress = new ProgressReporter("Commit Analysis", commits.size());
+		for (GitCommit c : commits) {
 			calcMetricsFromDiff(c,previous);
 			previous = c;
-			actual++;
+			progress.step();
+		}
+	}
+	
+	
+	/**
+	 * Verifica che i commit già elaborati secondo il checkpoint producano le stesse metriche di un'esecuzione
+	 * completa e riapplica i fix dei commit che nel frattempo sono diventati fix commit. I commit elaborati
+	 * devono essere i primi della lista ordinata per data: i diff sono calcolati tra commit consecutivi, quindi
+	 * un nuovo commit con data precedente (es. una merge successiva) cambierebbe anche il diff del commit
+	 * seguente. Un fix commit che non lo è più, o le cui AV sono cambiate, non può essere annullato nei bitset.
+	 * Ritorna il numero di commit già elaborati, o -1 se è necessaria un'elaborazione completa.
+	 **/
+	private int resumeFromCheckpoint() throws IOException {
+		List<String> processed = CheckpointHandler.getProcessedCommits(this.checkpoint);
+		if (processed.isEmpty() || processed.size() > this.commitList.size()) {
+			logger.log(Level.WARNING, "Checkpoint commits do not match the history. Full dataset build.");
+			return -1;
+		}
+		for (int i = 0; i < processed.size(); i++) {
+			if (!this.commitList.get(i).getId().name().equals(processed.get(i))) {
+				logger.log(Level.WARNING, "New commits precede commits already processed. Full dataset build.");
+				return -1;
+			}
 		}
+		
+		Map<Integer, List<String>> fixCommits = CheckpointHandler.getFixCommits(this.checkpoint);
+		List<Integer> newFixCommits = new ArrayList<>();
+		for (int i = 0; i < processed.size(); i++) {
+			GitCommit c = this.commitList.get(i);
+			List<String> affected = fixCommits.get(i);
+			if (affected == null) {
+				if (c.isFixCommit()) {
+					newFixCommits.add(i);
+				}
+			} else if (!c.isFixCommit() || !affected.equals(getAffectedReleaseNames(c))) {
+				String output = String.format("Fix commit %s changed since the checkpoint. Full dataset build.", c.getId().name());
+				logger.log(Level.WARNING, output);
+				return -1;
+			}
+		}
+		
+		try (DiffFormatter diffFormatter = newDiffFormatter()) {
+			for (int i : newFixCommits) {
+				GitCommit previous = i > 0 ? this.commitList.get(i - 1) : null;
+				applyFix(computeDiff(this.commitList.get(i), previous, diffFormatter));
+			}
+		}
+		String output = String.format("Incremental mode: %d commits already processed, %d of them are new fix commits",
+				processed.size(), newFixCommits.size());
+		logger.log(Level.INFO, output);
+		return processed.size();
+	}
+	
+	
+	/**
+	 * Annulla il ripristino del checkpoint: le classi delle release ripristinate vengono estratte di nuovo,
+	 * così che tutti i commit possano essere elaborati dall'inizio come in un'esecuzione completa
+	 **/
+	private void discardCheckpoint() throws IOException {
+		extractClassLists(this.releaseList.subList(0, this.restoredReleases), null);
+		setDefaultAdditionDates(this.releaseList, GitHubAPI.getOldestGitRelease(this.releaseList).getDate());
+		buildLineage(this.releaseList);
+		this.buggyReleases.clear();
+		this.restoredReleases = 0;
 	}
 	
 	/*===============================================================================================
@@ -525,6 +1113,43 @@ public class GitRepo {
 
 	public void setReleaseList(List<GitRelease> releaseList) {
 		this.releaseList = releaseList;
+		this.releaseIndex = null;
+	}
+	
+	public Map<String, BitSet> getBuggyReleases() {
+		return buggyReleases;
+	}
+
+	public JSONObject getCheckpoint() {
+		return checkpoint;
+	}
+
+	public void setCheckpoint(JSONObject checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	public AuthorDictionary getAuthors() {
+		return authors;
+	}
+
+	public SizeCache getSizeCache() {
+		return sizeCache;
+	}
+
+	public int getDiffThreads() {
+		return diffThreads;
+	}
+
+	public void setDiffThreads(int diffThreads) {
+		this.diffThreads = diffThreads;
+	}
+
+	public int getClassListThreads() {
+		return classListThreads;
+	}
+
+	public void setClassListThreads(int classListThreads) {
+		this.classListThreads = classListThreads;
 	}
 	
 	public List<GitCommit> getFixCommitList() {
@@ -0,0 +1,50 @@
+package git;
+
+import java.io.IOException;
+
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import utils.Parameters;
+
+/**
+ * Filtro applicato direttamente al TreeWalk del DiffFormatter: lascia passare soltanto i file Java,
+ * così che i file di altro tipo non vengano mai trasformati in DiffEntry, ma conta tutti i file
+ * modificati (di qualsiasi tipo), necessari per la metrica ChgSetSize.
+ * Ha uno stato interno, quindi va creato un nuovo filtro per ogni scan.
+ */
+public class JavaDiffFilter extends TreeFilter {
+	private final TreeFilter javaFilter = PathSuffixFilter.create(Parameters.FILTER_FILE_TYPE);
+	private int changedFiles;
+
+	@Override
+	public boolean include(TreeWalk walker) throws MissingObjectException, IncorrectObjectTypeException, IOException {
+		if (walker.isSubtree()) {
+			return true;
+		}
+		if (TreeFilter.ANY_DIFF.include(walker)) {
+			changedFiles++;
+		}
+		return javaFilter.include(walker);
+	}
+
+	@Override
+	public boolean shouldBeRecursive() {
+		return false;
+	}
+
+	/**
+	 * Il filtro conta i file del singolo scan in corso, quindi non viene duplicato
+	 */
+	@Override
+	public TreeFilter clone() {
+		return this;
+	}
+
+	public int getChangedFiles() {
+		return changedFiles;
+	}
+}
@@ -12,22 +12,64 @@ import org.json.JSONObject;
 
 import api.JiraAPI;
 import utils.DateHandler;
+import utils.FlightEvents;
 import utils.JsonHandler;
 import utils.Parameters;
 
 /**
- * Modella un progetto presente su Jira.
+ * Modella un progetto presente su Jira. Le Rest API possono essere anche servite da file (URL file://),
+ * con le risposte salvate in:
+ * 		project/NOME.json				risposta di project/NOME (release del progetto)
+ * 		search/NOME_STARTAT.json		pagine della ricerca dei ticket, da 1000 ticket ciascuna
  */
 public class JiraProject {
-	private String url;
+	private static final int PAGE_SIZE = 1000;
+	private String restAPI;
 	private String name;
 	private List<JiraRelease> releaseList;
 
 	public JiraProject(String projectName) {
+		this(projectName, Parameters.JIRA_REST_API);
+	}
+	
+	public JiraProject(String projectName, String restAPI) {
 		this.name = projectName;
-		this.url = Parameters.REST_API + projectName;
+		this.restAPI = restAPI;
 		this.releaseList = fetchReleases();
 	}
+	
+	
+	/**
+	 * Ritorna true se le Rest API sono servite da file
+	 */
+	private boolean isLocal() {
+		return this.restAPI.startsWith("file:");
+	}
+	
+	
+	/**
+	 * URL delle informazioni del progetto, contenenti la lista delle release
+	 */
+	private String projectURL() {
+		if (isLocal()) {
+			return this.restAPI + "project/" + this.name + ".json";
+		}
+		return this.restAPI + "project/" + this.name;
+	}
+	
+	
+	/**
+	 * URL della pagina dei ticket di tipo bug risolti a partire dal ticket startAt
+	 */
+	private String searchURL(int startAt, int maxResults) {
+		if (isLocal()) {
+			return this.restAPI + "search/" + this.name + "_" + startAt + ".json";
+		}
+		return this.restAPI + "search?jql=project=%22" + this.name
+				+ "%22AND%22issueType%22=%22Bug%22AND(%22status%22=%22closed%22OR"
+				+ "%22status%22=%22resolved%22)AND%22resolution%22=%22fixed%22&fields=key,fixVersions,resolutiondate,versions,created&startAt="
+				+ startAt + "&maxResults=" + maxResults;
+	}
 
 	/**
 	 * Ottiene una lista di tutte le release Jira, scartando quelle con informazioni parziali o incorrette.
@@ -36,8 +78,14 @@ public class JiraProject {
 		JSONObject json;
 		List<JiraRelease> allRelease = new ArrayList<>();
 		try {
-			json = JsonHandler.readJsonFromUrl(this.url);
+			FlightEvents.JiraFetchEvent event = new FlightEvents.JiraFetchEvent();
+			event.begin();
+			json = JsonHandler.readJsonFromUrl(projectURL());
 			JSONArray releasesList = json.getJSONArray("versions");
+			event.project = this.name;
+			event.resource = "versions";
+			event.items = releasesList.length();
+			event.commit();
 
 			for (int i = 0; i < releasesList.length(); i++) {
 				JSONObject tempRelease = releasesList.getJSONObject(i);
@@ -65,19 +113,23 @@ public class JiraProject {
 	public List<JiraTicket> getTickets() throws JSONException, IOException {
 		int i = 0;
 		int j = 0;
-		int nIssues = 1000;
+		int nIssues = PAGE_SIZE;
 		List<JiraTicket> tickets = new ArrayList<>();
 
 		while (i < nIssues) {
-			j = i + 1000;
-			String query = "https://issues.apache.org/jira/rest/api/2/search?jql=project=%22" + this.name
-					+ "%22AND%22issueType%22=%22Bug%22AND(%22status%22=%22closed%22OR"
-					+ "%22status%22=%22resolved%22)AND%22resolution%22=%22fixed%22&fields=key,fixVersions,resolutiondate,versions,created&startAt="
-					+ i + "&maxResults=" + j;
+			j = i + PAGE_SIZE;
+			String query = searchURL(i, j);
 
+			FlightEvents.JiraFetchEvent event = new FlightEvents.JiraFetchEvent();
+			event.begin();
 			JSONObject json = JsonHandler.readJsonFromUrl(query);
 			JSONArray issues = json.getJSONArray("issues");
 			nIssues = json.getInt("total");
+			event.project = this.name;
+			event.resource = "issues";
+			event.startAt = i;
+			event.items = issues.length();
+			event.commit();
 			i = j;
 
 			for (int k = 0; k < issues.length(); k++) {
@@ -55,10 +55,10 @@ public class CSVHandler {
 		String outputName = Parameters.OUTPUT_PATH + projectName + fileName + ".csv";
 
 		try (FileWriter fileWriter = new FileWriter(outputName)) {
-			StringBuilder outputBuilder = new StringBuilder("Index;Date;Message\n");
+			StringBuilder outputBuilder = new StringBuilder("Index;Date;Tickets\n");
 
 			for (GitCommit c : commits) {
-				outputBuilder.append(c.getId() + ";" + c.getDate() + ";" + c.getMessage() + "\n");
+				outputBuilder.append(c.getId() + ";" + c.getDate() + ";" + String.join(",", c.getTicketKeys()) + "\n");
 			}
 			fileWriter.append(outputBuilder.toString());
 		} catch (Exception e) {
@@ -107,12 +107,10 @@ public class CSVHandler {
 
 			for (ProjectClass c : classes) {
 				Metrics metrics = c.getMetrics();
-				outputBuilder.append(c.getRelease().getId() + ";" + c.getRelease().getName() + ";" + c.getPath() + ";"
-						+ metrics.getSize() + ";" + metrics.getLocTouched() + ";" + metrics.getAvgLocAdded() + ";"
-						+ metrics.getLocAdded() + ";" + metrics.getMaxLocAdded() + ";" + metrics.getChgSetSize() + ";" 
-						+ metrics.getMaxChgSetSize() + ";" + metrics.getAvgChgSetSize() + ";" + metrics.getNumberRevisions() + ";"
-						+ metrics.getNumberBugFixes() + ";" + metrics.getnAuth() + ";" + metrics.getAge() + ";"
-						+ c.isBuggy());
+				outputBuilder.append(c.getRelease().getId()).append(';').append(c.getRelease().getName()).append(';')
+						.append(c.getPath()).append(';');
+				metrics.getStore().appendRow(outputBuilder, metrics.getRow(), ";");
+				outputBuilder.append(';').append(c.isBuggy());
 				outputBuilder.append("\n");
 			}
 			fileWriter.append(outputBuilder.toString());
@@ -134,11 +132,10 @@ public class CSVHandler {
 
 			for (ProjectClass c : classes) {
 				Metrics metrics = c.getMetrics();
-				outputBuilder.append(c.getRelease().getId() + "," + c.getRelease().getName() + "," + c.getPath() + ","
-						+ metrics.getSize() + "," + metrics.getLocTouched() + "," + metrics.getAvgLocAdded() + ","
-						+ metrics.getLocAdded() + "," + metrics.getMaxLocAdded() + "," + metrics.getChgSetSize() + "," 
-						+ metrics.getMaxChgSetSize() + "," + metrics.getAvgChgSetSize() + "," + metrics.getNumberRevisions() + ","
-						+ metrics.getNumberBugFixes() + "," + metrics.getnAuth() +  "," + metrics.getAge()+ "," + c.isBuggy());
+				outputBuilder.append(c.getRelease().getId()).append(',').append(c.getRelease().getName()).append(',')
+						.append(c.getPath()).append(',');
+				metrics.getStore().appendRow(outputBuilder, metrics.getRow(), ",");
+				outputBuilder.append(',').append(c.isBuggy());
 				outputBuilder.append("\n");
 			}
 			fileWriter.append(outputBuilder.toString());
@@ -0,0 +1,271 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import data.AuthorDictionary;
+import data.MetricStore;
+import data.Metrics;
+import data.ProjectClass;
+import git.GitCommit;
+import git.GitRelease;
+import git.GitRepo;
+
+/**
+ * Gestisce il checkpoint utilizzato dalla modalità incrementale di CreateDataset. Il checkpoint contiene
+ * i commit elaborati (in ordine), le AV dei fix commit, la tabella delle release, i bitset della buggyness
+ * per path e, per ogni classe di ogni release, gli accumulatori delle metriche. In un'esecuzione successiva
+ * le release già presenti vengono ripristinate dal checkpoint e vengono elaborati soltanto i nuovi commit.
+ */
+public class CheckpointHandler {
+	static Logger logger = Logger.getLogger(CheckpointHandler.class.getName());
+
+	private static final String PROCESSED_COMMITS = "processedCommits";
+	private static final String FIX_COMMITS = "fixCommits";
+	private static final String BUGGY_RELEASES = "buggyReleases";
+	private static final String RELEASES = "releases";
+	private static final String CLASSES = "classes";
+	private static final String COMMIT = "commit";
+
+	private CheckpointHandler() {}
+
+
+	/**
+	 * Salva il checkpoint su file. Va invocato dopo il calcolo delle metriche e prima della generazione
+	 * del dataset, che modifica gli ID delle release e la buggyness. I fix commit sono indicati con la
+	 * posizione nella lista dei commit, perché il commit di una release può comparire due volte.
+	 */
+	public static void save(String fileName, GitRepo repo) {
+		List<GitRelease> releases = repo.getReleaseList();
+		List<GitCommit> commits = repo.getCommitList();
+		AuthorDictionary authors = repo.getAuthors();
+		JSONObject checkpoint = new JSONObject();
+		JSONArray commitsJson = new JSONArray();
+		JSONObject fixCommitsJson = new JSONObject();
+		for (int i = 0; i < commits.size(); i++) {
+			GitCommit c = commits.get(i);
+			commitsJson.put(c.getId().name());
+			if (c.isFixCommit()) {
+				fixCommitsJson.put(String.valueOf(i), new JSONArray(repo.getAffectedReleaseNames(c)));
+			}
+		}
+		checkpoint.put(PROCESSED_COMMITS, commitsJson);
+		checkpoint.put(FIX_COMMITS, fixCommitsJson);
+
+		JSONObject buggyJson = new JSONObject();
+		for (Map.Entry<String, BitSet> entry : repo.getBuggyReleases().entrySet()) {
+			JSONArray namesJson = new JSONArray();
+			BitSet bits = entry.getValue();
+			for (int i = bits.nextSetBit(0); i >= 0 && i < releases.size(); i = bits.nextSetBit(i + 1)) {
+				namesJson.put(releases.get(i).getName());
+			}
+			buggyJson.put(entry.getKey(), namesJson);
+		}
+		checkpoint.put(BUGGY_RELEASES, buggyJson);
+
+		JSONArray releasesJson = new JSONArray();
+		for (GitRelease r : releases) {
+			JSONObject releaseJson = new JSONObject();
+			releaseJson.put(Parameters.NAME_JSON, r.getName());
+			releaseJson.put(COMMIT, r.getCommit().getId().name());
+			JSONArray classesJson = new JSONArray();
+			for (ProjectClass p : r.getClassList()) {
+				classesJson.put(classToJson(p, authors));
+			}
+			releaseJson.put(CLASSES, classesJson);
+			releasesJson.put(releaseJson);
+		}
+		checkpoint.put(RELEASES, releasesJson);
+
+		try (FileWriter fileWriter = new FileWriter(fileName)) {
+			checkpoint.write(fileWriter);
+		} catch (IOException | JSONException e) {
+			logger.log(Level.SEVERE, "Error in checkpoint writer", e);
+		}
+	}
+
+
+	/**
+	 * Carica il checkpoint da file. Ritorna null se il file non esiste o non è leggibile.
+	 */
+	public static JSONObject load(String fileName) {
+		File file = new File(fileName);
+		if (!file.exists()) {
+			logger.log(Level.INFO, "No checkpoint found. Full dataset build.");
+			return null;
+		}
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			return new JSONObject(new JSONTokener(reader));
+		} catch (IOException | JSONException e) {
+			logger.log(Level.WARNING, "Checkpoint not readable. Full dataset build.", e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Ripristina le classi delle release già elaborate. Il checkpoint è valido soltanto se le sue release
+	 * coincidono (nome e commit) con le prime release ordinate per data; altrimenti non viene ripristinato
+	 * nulla. Ritorna il numero di release ripristinate.
+	 */
+	public static int restoreReleases(JSONObject checkpoint, List<GitRelease> releases, AuthorDictionary authors) {
+		if (!checkpoint.has(PROCESSED_COMMITS) || !checkpoint.has(FIX_COMMITS) || !checkpoint.has(BUGGY_RELEASES)) {
+			logger.log(Level.WARNING, "Checkpoint written with an older format. Full dataset build.");
+			return 0;
+		}
+		JSONArray releasesJson = checkpoint.getJSONArray(RELEASES);
+		if (releasesJson.length() > releases.size()) {
+			logger.log(Level.WARNING, "Checkpoint has more releases than the repository. Full dataset build.");
+			return 0;
+		}
+		for (int i = 0; i < releasesJson.length(); i++) {
+			JSONObject releaseJson = releasesJson.getJSONObject(i);
+			GitRelease r = releases.get(i);
+			if (!r.getName().equals(releaseJson.getString(Parameters.NAME_JSON))
+					|| !r.getCommit().getId().name().equals(releaseJson.getString(COMMIT))) {
+				logger.log(Level.WARNING, "Checkpoint release table does not match. Full dataset build.");
+				return 0;
+			}
+		}
+		for (int i = 0; i < releasesJson.length(); i++) {
+			GitRelease r = releases.get(i);
+			JSONArray classesJson = releasesJson.getJSONObject(i).getJSONArray(CLASSES);
+			List<ProjectClass> classList = new ArrayList<>(classesJson.length());
+			r.setMetricStore(new MetricStore(classesJson.length()));
+			for (int j = 0; j < classesJson.length(); j++) {
+				classList.add(classFromJson(classesJson.getJSONObject(j), r, authors));
+			}
+			r.setClassList(classList);
+		}
+		logger.log(Level.INFO, "Restored {0} releases from checkpoint.", releasesJson.length());
+		return releasesJson.length();
+	}
+
+
+	/**
+	 * Ritorna i bitset path -> posizioni delle release buggy, convertendo i nomi salvati nelle posizioni
+	 * delle release in input. In caso di nomi duplicati vale la prima release.
+	 */
+	public static Map<String, BitSet> restoreBuggyReleases(JSONObject checkpoint, List<GitRelease> releases) {
+		Map<String, Integer> positions = new HashMap<>(releases.size() * 2);
+		for (int i = 0; i < releases.size(); i++) {
+			positions.putIfAbsent(releases.get(i).getName(), i);
+		}
+		JSONObject buggyJson = checkpoint.getJSONObject(BUGGY_RELEASES);
+		Map<String, BitSet> buggyReleases = new HashMap<>(buggyJson.length() * 2);
+		for (String path : buggyJson.keySet()) {
+			JSONArray namesJson = buggyJson.getJSONArray(path);
+			BitSet bits = new BitSet();
+			for (int i = 0; i < namesJson.length(); i++) {
+				Integer position = positions.get(namesJson.getString(i));
+				if (position != null) {
+					bits.set(position);
+				}
+			}
+			buggyReleases.put(path, bits);
+		}
+		return buggyReleases;
+	}
+
+
+	/**
+	 * Ritorna gli ID dei commit elaborati, nell'ordine in cui sono stati elaborati
+	 */
+	public static List<String> getProcessedCommits(JSONObject checkpoint) {
+		JSONArray commitsJson = checkpoint.getJSONArray(PROCESSED_COMMITS);
+		List<String> commits = new ArrayList<>(commitsJson.length());
+		for (int i = 0; i < commitsJson.length(); i++) {
+			commits.add(commitsJson.getString(i));
+		}
+		return commits;
+	}
+
+
+	/**
+	 * Ritorna i fix commit elaborati: posizione nella lista dei commit -> nomi delle release Affected Versions
+	 */
+	public static Map<Integer, List<String>> getFixCommits(JSONObject checkpoint) {
+		JSONObject fixCommitsJson = checkpoint.getJSONObject(FIX_COMMITS);
+		Map<Integer, List<String>> fixCommits = new HashMap<>(fixCommitsJson.length() * 2);
+		for (String index : fixCommitsJson.keySet()) {
+			JSONArray namesJson = fixCommitsJson.getJSONArray(index);
+			List<String> names = new ArrayList<>(namesJson.length());
+			for (int i = 0; i < namesJson.length(); i++) {
+				names.add(namesJson.getString(i));
+			}
+			fixCommits.put(Integer.valueOf(index), names);
+		}
+		return fixCommits;
+	}
+
+
+	private static JSONObject classToJson(ProjectClass p, AuthorDictionary authors) {
+		Metrics m = p.getMetrics();
+		JSONObject json = new JSONObject();
+		json.put("path", p.getPath());
+		json.put("dateAdded", p.getDateAdded().getTime());
+		json.put("size", m.getSize());
+		json.put("locTouched", m.getLocTouched());
+		json.put("numberRevisions", m.getNumberRevisions());
+		json.put("numberBugFixes", m.getNumberBugFixes());
+		json.put("locAdded", m.getLocAdded());
+		json.put("maxLocAdded", m.getMaxLocAdded());
+		json.put("avgLocAdded", (int) m.getAvgLocAdded());
+		json.put("chgSetSize", m.getChgSetSize());
+		json.put("maxChgSetSize", m.getMaxChgSetSize());
+		json.put("avgChgSetSize", m.getAvgChgSetSize());
+		json.put("nAuth", m.getnAuth());
+		json.put("counterLocAdded", m.getCounterLocAdded());
+		json.put("counterChgSet", m.getCounterChgSet());
+		JSONArray authorsJson = new JSONArray();
+		for (int id : m.getAuthorIds()) {
+			authorsJson.put(authors.getName(id));
+		}
+		json.put("authors", authorsJson);
+		return json;
+	}
+
+
+	private static ProjectClass classFromJson(JSONObject json, GitRelease release, AuthorDictionary authors) {
+		ProjectClass p = new ProjectClass(json.getString("path"), release);
+		p.setDateAdded(new Date(json.getLong("dateAdded")));
+
+		Metrics m = release.getMetricStore().newMetrics();
+		m.setSize(json.getInt("size"));
+		m.setLocTouched(json.getInt("locTouched"));
+		m.setNumberRevisions(json.getInt("numberRevisions"));
+		m.setNumberBugFixes(json.getInt("numberBugFixes"));
+		m.setLocAdded(json.getInt("locAdded"));
+		m.setMaxLocAdded(json.getInt("maxLocAdded"));
+		m.setAvgLocAdded(json.getInt("avgLocAdded"));
+		m.setChgSetSize(json.getInt("chgSetSize"));
+		m.setMaxChgSetSize(json.getInt("maxChgSetSize"));
+		m.setAvgChgSetSize(json.getInt("avgChgSetSize"));
+		m.setCounterLocAdded(json.getInt("counterLocAdded"));
+		m.setCounterChgSet(json.getInt("counterChgSet"));
+		JSONArray authorsJson = json.getJSONArray("authors");
+		int[] authorIds = new int[authorsJson.length()];
+		for (int i = 0; i < authorIds.length; i++) {
+			authorIds[i] = authors.getId(authorsJson.getString(i));
+		}
+		m.setAuthorIds(authorIds);
+		p.setMetrics(m);
+		return p;
+	}
+}
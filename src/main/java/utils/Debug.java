@@ -61,15 +61,6 @@ public class Debug {
 		}
 	}
 	
-	/**
-	 * Stampa a schermo il progresso corrente riguardo l'analisi di tutti i commit considerati
-	 */
-	public static void printPercentage(double actual, double total) {
-		double percentage = (actual/total*100.00);
-		String perc = String.format("Commit Analysis: %.2f%%",percentage);
-		logger.log(Level.INFO,perc);
-	}
-	
     int extractInt(String s) {
         String num = s.replaceAll("\\D", "");
         return num.isEmpty() ? 0 : Integer.parseInt(num);
@@ -0,0 +1,128 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventi Java Flight Recorder emessi dalle pipeline di creazione e analisi del dataset. Gli eventi sono
+ * registrati soltanto se la JVM è avviata con una registrazione attiva, ad esempio:
+ * 		-XX:StartFlightRecording=filename=run.jfr
+ * altrimenti il costo è trascurabile. Richiede una JVM con il modulo jdk.jfr (JDK 11+).
+ */
+public class FlightEvents {
+
+	// Byte dei blob decompressi dal thread corrente, per attribuire i byte ad ogni estrazione delle classi
+	private static final ThreadLocal<long[]> threadBytesInflated = ThreadLocal.withInitial(() -> new long[1]);
+
+	private FlightEvents() {}
+
+
+	public static void addBytesInflated(long bytes) {
+		threadBytesInflated.get()[0] += bytes;
+	}
+
+	public static long getBytesInflated() {
+		return threadBytesInflated.get()[0];
+	}
+
+
+	@Name("deliverable2.CommitDiff")
+	@Label("Commit Diff")
+	@Category({"Deliverable2", "Mining"})
+	@Description("Calcolo dei diff di un commit rispetto al commit precedente")
+	public static class CommitDiffEvent extends Event {
+		@Label("Commit")
+		public String commitId;
+
+		@Label("Java Diffs")
+		public int diffCount;
+
+		@Label("Edits")
+		@Description("Numero di Edit nelle EditList dei file Java modificati")
+		public int editCount;
+
+		@Label("Change Set Size")
+		public int chgSetSize;
+	}
+
+
+	@Name("deliverable2.ClassList")
+	@Label("Class List")
+	@Category({"Deliverable2", "Mining"})
+	@Description("Estrazione delle classi di una release con il calcolo delle Size")
+	public static class ClassListEvent extends Event {
+		@Label("Release")
+		public String release;
+
+		@Label("Classes")
+		public int classCount;
+
+		@Label("Delta")
+		@Description("Lista costruita dal diff con la release precedente")
+		public boolean delta;
+
+		@Label("Bytes Inflated")
+		@DataAmount
+		public long bytesInflated;
+	}
+
+
+	@Name("deliverable2.JiraFetch")
+	@Label("Jira Fetch")
+	@Category({"Deliverable2", "Jira"})
+	@Description("Lettura di una pagina delle Rest API di Jira")
+	public static class JiraFetchEvent extends Event {
+		@Label("Project")
+		public String project;
+
+		@Label("Resource")
+		public String resource;
+
+		@Label("Start At")
+		public int startAt;
+
+		@Label("Items")
+		public int items;
+	}
+
+
+	@Name("deliverable2.WalkForwardStep")
+	@Label("Walk Forward Step")
+	@Category({"Deliverable2", "Learning"})
+	@Description("Un'iterazione di walk forward per una configurazione di classificatore, feature selection, balancing e sensitivity")
+	public static class WalkForwardEvent extends Event {
+		@Label("Classifier")
+		public String classifier;
+
+		@Label("Feature Selection")
+		public String featureSelection;
+
+		@Label("Resampling")
+		public String resampling;
+
+		@Label("Sensitivity")
+		public String sensitivity;
+
+		@Label("Test Release")
+		public int testRelease;
+
+		@Label("Training Size")
+		public int trainSize;
+
+		@Label("Test Size")
+		public int testSize;
+
+		@Label("Build Time")
+		@Timespan(Timespan.NANOSECONDS)
+		public long buildTime;
+
+		@Label("Evaluate Time")
+		@Timespan(Timespan.NANOSECONDS)
+		public long evaluateTime;
+	}
+}
@@ -13,7 +13,7 @@ public class Parameters {
 	
 	// Projects settings
 	public static final String PROJ_ORG = "apache";
-	public static final String REST_API = "https://issues.apache.org/jira/rest/api/2/project/";
+	public static final String JIRA_REST_API = "https://issues.apache.org/jira/rest/api/2/";	// Anche file:// (vedi JiraProject)
 	
 	// Strings settings
 	public static final String DATE_FORMAT = "yyyy-MM-dd";
@@ -26,12 +26,51 @@ public class Parameters {
 	public static final String INCREMENTAL = "incremental";
 	public static final String MOVING_WINDOW = "moving_window";
 	
+	// Parallelism settings
+	public static final int CLASS_LIST_THREADS = Runtime.getRuntime().availableProcessors();	// 1 = estrazione seriale
+	public static final int DIFF_THREADS = Runtime.getRuntime().availableProcessors();			// 1 = calcolo seriale dei diff
+	public static final int DIFF_QUEUE_FACTOR = 4;		// Commit in coda per ogni worker dei diff
+	public static final int PROJECT_THREADS = 2;		// Progetti elaborati in parallelo (ognuno usa a sua volta i pool sopra)
+	
+	// Class list settings
+	public static final boolean DELTA_CLASS_LISTS = false;		// Classi di ogni release ricavate dal diff con la release precedente (estrazione seriale)
+	
+	// Rename detection settings
+	// Le RENAME vengono cercate soltanto tra i file Java, perché il filtro del TreeWalk scarta gli altri file
+	// prima della detection: una classe rinominata con un'altra estensione risulta una DELETE
+	public static final boolean DETECT_RENAMES = false;		// Disattivata di default, come nelle versioni precedenti
+	public static final int RENAME_SCORE = 60;				// Similarità minima (0-100) per considerare due file un RENAME
+	public static final int RENAME_LIMIT = 400;				// Oltre questo numero di ADD/DELETE Java si cercano solo RENAME esatti
+	
+	// Cache settings
+	public static final boolean PERSIST_SIZE_CACHE = false;		// Salva su disco la cache delle Size tra un'esecuzione e l'altra
+	public static final boolean PERSIST_COMMIT_STORE = false;	// Salva su disco i metadati dei commit, evitando il walk completo ad ogni avvio
+	public static final boolean INCREMENTAL_DATASET = false;	// Riprende dal checkpoint elaborando soltanto i nuovi commit e le nuove release
+	
+	// Repository settings
+	public static final boolean BARE_REPOSITORY = false;	// Clone senza working tree (il miner legge soltanto gli oggetti)
+	public static final boolean FROZEN_REPOSITORY = false;	// Apre la copia locale così com'è, senza checkout né pull/fetch
+	public static final String CLONE_BRANCH = "";			// Branch da clonare ("" = tutte); i tag seguono la storia clonata
+	
+	// JGit object cache settings (globali per la JVM)
+	public static final long PACKED_GIT_LIMIT = 256L * 1024 * 1024;		// Memoria per le finestre dei pack (default JGit: 10 MB)
+	public static final long DELTA_BASE_CACHE_BUDGET = 512L * 1024 * 1024;	// Memoria totale per le cache delle basi delta di tutti i worker
+	// La cache delle basi delta è allocata per ogni ObjectReader, ed ogni worker (progetti x thread di
+	// class list e diff) ne usa uno proprio: il limite per reader divide il budget, fino a 32 MB
+	public static final int DELTA_BASE_CACHE_LIMIT = (int) Math.min(32L * 1024 * 1024,
+			DELTA_BASE_CACHE_BUDGET / (PROJECT_THREADS * (CLASS_LIST_THREADS + DIFF_THREADS)));	// Per ObjectReader (default JGit: 10 MB)
+	public static final boolean PACKED_GIT_MMAP = false;				// Finestre dei pack in memory mapping invece che su heap
+	public static final boolean REPACK_REPOSITORY = false;				// gc con bitmap prima dell'analisi (ignorato se FROZEN_REPOSITORY)
+	
 	// Diffentries types
 	public static final String MODIFY = "MODIFY";
 	public static final String ADD = "ADD";
 	public static final String DELETE = "DELETE";
 	public static final String RENAME = "RENAME";
 	
+	// Instrumentation settings
+	public static final long PROGRESS_INTERVAL_MS = 5000;		// Intervallo minimo tra due stampe del progresso
+	
 	// Errors
 	public static final String CSV_ERROR = "Error in csv writer";
 	
@@ -41,6 +80,14 @@ public class Parameters {
 	public static final String DATASET_ARFF = "_Dataset.arff";
 	public static final String WEKA_CSV = "_TempDataset.csv";
 	public static final String RESULT_CSV = "_AnalysisResult.csv";
+	public static final String SIZE_CACHE_CSV = "_SizeCache.csv";
+	public static final String CHECKPOINT_JSON = "_Checkpoint.json";
+	public static final String COMMIT_STORE_BIN = "_Commits.bin";
+	public static final String PROJECTS_JSON = "./projects.json";
+	public static final String CREATE_LOG = "_CreateDataset.log";
+	public static final String ANALYZE_LOG = "_AnalyzeDataset.log";
+	public static final String CREATE_METRICS_JSON = "_CreateMetrics.json";
+	public static final String ANALYZE_METRICS_JSON = "_AnalyzeMetrics.json";
 	
 	// CSV Headers
 	public static final String CSV_HEADER = "VersionID;VersionName;Path;Size;LOC_Touched;AVGLocAdded;LocAdded;MaxLocAdded;ChgSetSize;MaxChgSetSize;AVGChgSetSize;NumRevisions;NumBugFixed;NAuth;Age;Buggyness\n";
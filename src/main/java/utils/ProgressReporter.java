@@ -0,0 +1,40 @@
+package utils;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stampa il progresso di un'elaborazione al massimo una volta ogni PROGRESS_INTERVAL_MS millisecondi
+ * (oltre che al completamento), con percentuale e velocità, invece di una riga per ogni elemento.
+ * Va aggiornato da un solo thread.
+ */
+public class ProgressReporter {
+	static Logger logger = Logger.getLogger(ProgressReporter.class.getName());
+
+	private final String label;
+	private final long total;
+	private final long startNanos = System.nanoTime();
+	private long done;
+	private long lastReportNanos = startNanos;
+
+	public ProgressReporter(String label, long total) {
+		this.label = label;
+		this.total = total;
+	}
+
+
+	/**
+	 * Segnala il completamento di un elemento
+	 */
+	public void step() {
+		done++;
+		long now = System.nanoTime();
+		if (done == total || now - lastReportNanos >= Parameters.PROGRESS_INTERVAL_MS * 1_000_000L) {
+			lastReportNanos = now;
+			double seconds = (now - startNanos) / 1e9;
+			String output = String.format("%s: %.2f%% (%d/%d, %.1f/s)", label, done * 100.0 / total, done, total,
+					seconds > 0 ? done / seconds : 0);
+			logger.log(Level.INFO, output);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package utils;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Strumentazione di un'esecuzione (creazione o analisi del dataset di un progetto): tempi delle fasi
+ * della pipeline e contatori, salvati in JSON al termine dell'esecuzione per confrontare esecuzioni diverse.
+ * L'esecuzione corrente è ereditata dai thread creati durante l'esecuzione (es. i worker dei diff),
+ * così che più progetti in parallelo abbiano ognuno la propria strumentazione.
+ */
+public class RunMetrics {
+	static Logger logger = Logger.getLogger(RunMetrics.class.getName());
+
+	// Fasi
+	public static final String RELEASE_FETCH = "releaseFetch";
+	public static final String CLASS_EXTRACTION = "classExtraction";
+	public static final String COMMIT_WALK = "commitWalk";
+	public static final String JIRA_FETCH = "jiraFetch";
+	public static final String DIFFING = "diffing";
+	public static final String EXPORT = "export";
+	public static final String WALK_FORWARD = "walkForward";
+
+	// Contatori
+	public static final String COMMITS = "commits";
+	public static final String DIFFS = "diffs";
+	public static final String BLOBS_INFLATED = "blobsInflated";
+	public static final String BYTES_READ = "bytesRead";
+
+	private static final RunMetrics GLOBAL = new RunMetrics("global");
+	private static final InheritableThreadLocal<RunMetrics> current = new InheritableThreadLocal<>();
+
+	private final String name;
+	private final long startNanos = System.nanoTime();
+	private final Map<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> phaseCalls = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Tempo di una fase: inizia con phase() e viene registrato con stop()
+	 */
+	public final class Phase {
+		private final String phaseName;
+		private final long start = System.nanoTime();
+
+		private Phase(String phaseName) {
+			this.phaseName = phaseName;
+		}
+
+		public void stop() {
+			phaseNanos.computeIfAbsent(phaseName, k -> new LongAdder()).add(System.nanoTime() - start);
+			phaseCalls.computeIfAbsent(phaseName, k -> new LongAdder()).increment();
+		}
+	}
+
+	public RunMetrics(String name) {
+		this.name = name;
+	}
+
+
+	/**
+	 * Inizia una nuova esecuzione sul thread corrente e sui thread che verranno creati da esso
+	 */
+	public static RunMetrics start(String name) {
+		RunMetrics run = new RunMetrics(name);
+		current.set(run);
+		return run;
+	}
+
+	/**
+	 * Termina l'esecuzione del thread corrente
+	 */
+	public static void stop() {
+		current.remove();
+	}
+
+	/**
+	 * Ritorna l'esecuzione corrente, oppure quella globale se nessuna esecuzione è stata avviata
+	 */
+	public static RunMetrics current() {
+		RunMetrics run = current.get();
+		return run == null ? GLOBAL : run;
+	}
+
+
+	public Phase phase(String phaseName) {
+		return new Phase(phaseName);
+	}
+
+	public void add(String counter, long value) {
+		counters.computeIfAbsent(counter, k -> new LongAdder()).add(value);
+	}
+
+	public void increment(String counter) {
+		add(counter, 1);
+	}
+
+	public long getCounter(String counter) {
+		LongAdder value = counters.get(counter);
+		return value == null ? 0 : value.sum();
+	}
+
+	public double getPhaseSeconds(String phaseName) {
+		LongAdder value = phaseNanos.get(phaseName);
+		return value == null ? 0 : value.sum() / 1e9;
+	}
+
+
+	/**
+	 * Ritorna la strumentazione in JSON: durata totale, fasi (secondi e numero di chiamate),
+	 * contatori e throughput di commit e diff durante la fase di diffing
+	 */
+	public JSONObject toJson() {
+		JSONObject json = new JSONObject();
+		json.put(Parameters.NAME_JSON, name);
+		json.put("totalSeconds", (System.nanoTime() - startNanos) / 1e9);
+
+		JSONObject phases = new JSONObject();
+		for (Map.Entry<String, LongAdder> e : new TreeMap<>(phaseNanos).entrySet()) {
+			JSONObject phase = new JSONObject();
+			phase.put("seconds", e.getValue().sum() / 1e9);
+			phase.put("calls", phaseCalls.get(e.getKey()).sum());
+			phases.put(e.getKey(), phase);
+		}
+		json.put("phases", phases);
+
+		JSONObject countersJson = new JSONObject();
+		for (Map.Entry<String, LongAdder> e : new TreeMap<>(counters).entrySet()) {
+			countersJson.put(e.getKey(), e.getValue().sum());
+		}
+		json.put("counters", countersJson);
+
+		double diffing = getPhaseSeconds(DIFFING);
+		if (diffing > 0) {
+			json.put("commitsPerSecond", getCounter(COMMITS) / diffing);
+			json.put("diffsPerSecond", getCounter(DIFFS) / diffing);
+		}
+		return json;
+	}
+
+
+	/**
+	 * Salva la strumentazione su file JSON
+	 */
+	public void save(String fileName) {
+		try (FileWriter fileWriter = new FileWriter(fileName)) {
+			toJson().write(fileWriter, 2, 0);
+		} catch (IOException | JSONException e) {
+			logger.log(Level.SEVERE, "Error in run metrics writer", e);
+		}
+	}
+}
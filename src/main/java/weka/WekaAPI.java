@@ -6,6 +6,7 @@ import java.util.Enumeration;
 import java.util.List;
 
 import utils.Debug;
+import utils.FlightEvents;
 import weka.attributeSelection.CfsSubsetEval;
 import weka.attributeSelection.GreedyStepwise;
 import weka.classifiers.AbstractClassifier;
@@ -122,6 +123,8 @@ public class WekaAPI {
 	 * Esegue un'iterazione di Walk Forward
 	 */
 	public void runWalkForwardConfiguration(Instances[] trainTest, WekaMetrics metrics, int iterationIndex) {
+		FlightEvents.WalkForwardEvent event = new FlightEvents.WalkForwardEvent();
+		event.begin();
 		Instances trainingSet = trainTest[0];
 		Instances testSet = trainTest[1];
 
@@ -137,66 +140,7 @@ public class WekaAPI {
 
 		// Setup del metodo di balancing
 		try {
-			switch (metrics.getResamplingMethodName()) {
-			case "Undersampling":
-				resamplingMethod = new SpreadSubsample();
-				resamplingMethod.setInputFormat(trainingSet);
-
-				String[] opts = new String[] { "-M", "1.0" };
-				resamplingMethod.setOptions(opts);
-
-				trainingSet = Filter.useFilter(trainingSet, resamplingMethod);
-				break;
-
-			case "Oversampling":
-				resamplingMethod = new Resample();
-				resamplingMethod.setInputFormat(trainingSet);
-
-				// Trovo qual è la classe maggioritaria per le opzioni del filtro
-				int trainingSetSize = trainingSet.size();
-				int numInstancesTrue = getNumInstancesTrue(trainingSet);
-				double percentageTrue = (double) (numInstancesTrue) / (double) (trainingSetSize) * 100.0;
-				double percentageMajorityClass = 0;
-				if (percentageTrue > 50) {
-					percentageMajorityClass = percentageTrue;
-				} else {
-					percentageMajorityClass = 100 - percentageTrue;
-				}
-
-				String doublePercentageMajorityClassString = String.valueOf(percentageMajorityClass * 2);
-				// -Z = la dimensione finale del dataset /2*majorityClasses)
-				opts = new String[] { "-B", "1.0", "-Z", doublePercentageMajorityClassString };
-				resamplingMethod.setOptions(opts);
-
-				trainingSet = Filter.useFilter(trainingSet, resamplingMethod);
-				break;
-
-			case "Smote":
-				resamplingMethod = new SMOTE();
-				double parameter = 0;
-				numInstancesTrue = getNumInstancesTrue(trainingSet);
-				int numInstancesFalse = trainingSet.numInstances() - numInstancesTrue;
-
-				if (numInstancesTrue < numInstancesFalse && numInstancesTrue != 0) {
-					parameter = ((double) numInstancesFalse - numInstancesTrue) / numInstancesTrue * 100.0;
-				} else if (numInstancesTrue >= numInstancesFalse && numInstancesFalse != 0) {
-					parameter = ((double) numInstancesTrue - numInstancesFalse) / numInstancesFalse * 100.0;
-				}
-				
-				// Setup di smote, raddoppio le istanze minoritarie con -P 100
-				opts = new String[] { "-P 100", String.valueOf(parameter) };
-				resamplingMethod.setOptions(opts);
-				resamplingMethod.setInputFormat(trainingSet);
-
-				trainingSet = Filter.useFilter(trainingSet, resamplingMethod);
-				break;
-
-			case "No resampling":
-				break;
-
-			default:
-				break;
-			}
+			trainingSet = applyResampling(trainingSet, metrics.getResamplingMethodName());
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -228,18 +172,9 @@ public class WekaAPI {
 		// Setup del metodo di Feature Selection
 		try {
 			if (metrics.getFeatureSelectionName().equalsIgnoreCase("Best First")) {
-				featureSelection = new AttributeSelection();
-				CfsSubsetEval eval = new CfsSubsetEval();
-				GreedyStepwise search = new GreedyStepwise();
-				search.setSearchBackwards(true);
-				featureSelection.setEvaluator(eval);
-				featureSelection.setSearch(search);
-				featureSelection.setInputFormat(trainingSet);
-				trainingSet = Filter.useFilter(trainingSet, featureSelection);
-				testSet = Filter.useFilter(testSet, featureSelection);
-				int numAttrFiltered = trainingSet.numAttributes();
-				trainingSet.setClassIndex(numAttrFiltered - 1);
-				testSet.setClassIndex(numAttrFiltered - 1);
+				Instances[] filtered = applyFeatureSelection(trainingSet, testSet);
+				trainingSet = filtered[0];
+				testSet = filtered[1];
 			}
 
 			// Salvo le informazioni sul numero di release nel training set
@@ -250,19 +185,118 @@ public class WekaAPI {
 			
 			// Addestro il classificatore utilizzando il training set, e ne valuto il comportamento
 			// tramite il testing set
+			long buildStart = System.nanoTime();
+			long evaluateStart = buildStart;
 			if (costSensitiveClassifier != null) {
 				costSensitiveClassifier.buildClassifier(trainingSet);
+				evaluateStart = System.nanoTime();
 				eval.evaluateModel(costSensitiveClassifier, testSet);
 			} else if (classifier!=null) {
 				classifier.buildClassifier(trainingSet);
+				evaluateStart = System.nanoTime();
 				eval.evaluateModel(classifier, testSet);
 			}
+			event.buildTime = evaluateStart - buildStart;
+			event.evaluateTime = System.nanoTime() - evaluateStart;
+			event.trainSize = trainingSet.size();
+			event.testSize = testSet.size();
 
 			// Salvo tutti i risultati ottenuti all'interno dell'oggetto metrics.
 			metrics.setValues(eval, getPositiveClassIndex());
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		
+		event.classifier = metrics.getClassifierName();
+		event.featureSelection = metrics.getFeatureSelectionName();
+		event.resampling = metrics.getResamplingMethodName();
+		event.sensitivity = metrics.getCostSensitivityName();
+		event.testRelease = iterationIndex;
+		event.commit();
+	}
+
+	/**
+	 * Applica al training set il metodo di balancing in input (Undersampling, Oversampling o Smote).
+	 * Ritorna il training set filtrato, oppure quello in input se il metodo non prevede balancing.
+	 */
+	public Instances applyResampling(Instances trainingSet, String resamplingMethodName) throws Exception {
+		switch (resamplingMethodName) {
+		case "Undersampling":
+			resamplingMethod = new SpreadSubsample();
+			resamplingMethod.setInputFormat(trainingSet);
+
+			String[] opts = new String[] { "-M", "1.0" };
+			resamplingMethod.setOptions(opts);
+
+			return Filter.useFilter(trainingSet, resamplingMethod);
+
+		case "Oversampling":
+			resamplingMethod = new Resample();
+			resamplingMethod.setInputFormat(trainingSet);
+
+			// Trovo qual è la classe maggioritaria per le opzioni del filtro
+			int trainingSetSize = trainingSet.size();
+			int numInstancesTrue = getNumInstancesTrue(trainingSet);
+			double percentageTrue = (double) (numInstancesTrue) / (double) (trainingSetSize) * 100.0;
+			double percentageMajorityClass = 0;
+			if (percentageTrue > 50) {
+				percentageMajorityClass = percentageTrue;
+			} else {
+				percentageMajorityClass = 100 - percentageTrue;
+			}
+
+			String doublePercentageMajorityClassString = String.valueOf(percentageMajorityClass * 2);
+			// -Z = la dimensione finale del dataset /2*majorityClasses)
+			opts = new String[] { "-B", "1.0", "-Z", doublePercentageMajorityClassString };
+			resamplingMethod.setOptions(opts);
+
+			return Filter.useFilter(trainingSet, resamplingMethod);
+
+		case "Smote":
+			resamplingMethod = new SMOTE();
+			double parameter = 0;
+			numInstancesTrue = getNumInstancesTrue(trainingSet);
+			int numInstancesFalse = trainingSet.numInstances() - numInstancesTrue;
+
+			if (numInstancesTrue < numInstancesFalse && numInstancesTrue != 0) {
+				parameter = ((double) numInstancesFalse - numInstancesTrue) / numInstancesTrue * 100.0;
+			} else if (numInstancesTrue >= numInstancesFalse && numInstancesFalse != 0) {
+				parameter = ((double) numInstancesTrue - numInstancesFalse) / numInstancesFalse * 100.0;
+			}
+			
+			// Setup di smote, raddoppio le istanze minoritarie con -P 100
+			opts = new String[] { "-P 100", String.valueOf(parameter) };
+			resamplingMethod.setOptions(opts);
+			resamplingMethod.setInputFormat(trainingSet);
+
+			return Filter.useFilter(trainingSet, resamplingMethod);
+
+		default:
+			// Nessun balancing
+			return trainingSet;
+		}
+	}
+	
+	
+	/**
+	 * Applica la feature selection (CfsSubsetEval con GreedyStepwise all'indietro) al training ed al
+	 * test set. Ritorna i due set filtrati, con la classe come ultimo attributo.
+	 */
+	public Instances[] applyFeatureSelection(Instances trainingSet, Instances testSet) throws Exception {
+		featureSelection = new AttributeSelection();
+		CfsSubsetEval eval = new CfsSubsetEval();
+		GreedyStepwise search = new GreedyStepwise();
+		search.setSearchBackwards(true);
+		featureSelection.setEvaluator(eval);
+		featureSelection.setSearch(search);
+		featureSelection.setInputFormat(trainingSet);
+		Instances[] filtered = new Instances[2];
+		filtered[0] = Filter.useFilter(trainingSet, featureSelection);
+		filtered[1] = Filter.useFilter(testSet, featureSelection);
+		int numAttrFiltered = filtered[0].numAttributes();
+		filtered[0].setClassIndex(numAttrFiltered - 1);
+		filtered[1].setClassIndex(numAttrFiltered - 1);
+		return filtered;
 	}
 
 	/**
@@ -339,6 +373,10 @@ public class WekaAPI {
 		return dataset;
 	}
 
+	public AbstractClassifier getClassifier() {
+		return classifier;
+	}
+
 	public void setDataset(Instances dataset) {
 		this.dataset = dataset;
 	}
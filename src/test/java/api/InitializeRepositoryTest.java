@@ -0,0 +1,144 @@
+package api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import utils.GitFixtures;
+
+/**
+ * Verifica le modalità di GitHubAPI.initializeRepository() (bare, frozen, singola branch) su una
+ * repository locale raggiungibile con URL file://
+ */
+public class InitializeRepositoryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Git source;
+	private String sourceURL;
+	private String local;
+
+	@Before
+	public void setUp() throws Exception {
+		// master: v1.0 <- v1.1; feature (da v1.0): feature-1.0
+		source = GitFixtures.init(folder.newFolder("source"));
+		GitFixtures.commit(source, "A.java", "class A {}", "Add A");
+		GitFixtures.tag(source, "release-1.0");
+		source.branchCreate().setName("feature").call();
+		GitFixtures.commit(source, "B.java", "class B {}", "Add B");
+		GitFixtures.tag(source, "release-1.1");
+		source.checkout().setName("feature").call();
+		GitFixtures.commit(source, "C.java", "class C {}", "Add C");
+		GitFixtures.tag(source, "feature-1.0");
+		source.checkout().setName("master").call();
+
+		sourceURL = GitFixtures.url(source);
+		local = new File(folder.getRoot(), "clone").getPath();
+	}
+
+	@After
+	public void tearDown() {
+		source.close();
+	}
+
+
+	@Test
+	public void bareCloneHasNoWorkingTree() throws Exception {
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, true, false, "")) {
+			assertTrue(git.getRepository().isBare());
+			assertFalse(new File(local, "A.java").exists());
+			assertNotNull(git.getRepository().resolve("release-1.1^{commit}"));
+		}
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, true, false, "")) {
+			assertTrue(git.getRepository().isBare());
+			assertFalse(new File(local, "A.java").exists());
+		}
+	}
+
+
+	@Test
+	public void frozenOpenSkipsFetchAndCheckout() throws Exception {
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, false, false, "")) {
+			git.checkout().setName("release-1.0").call();
+		}
+		ObjectId remoteMaster = refId(local, Constants.R_REMOTES + "origin/master");
+		RevCommit upstream = GitFixtures.commit(source, "D.java", "class D {}", "Add D");
+		GitFixtures.tag(source, "release-1.2");
+
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, false, true, "")) {
+			Repository repo = git.getRepository();
+			// Nessun checkout: HEAD resta staccato sulla release 1.0 e B.java non è nella working tree
+			assertEquals(repo.resolve("release-1.0^{commit}"), repo.resolve(Constants.HEAD));
+			assertFalse(repo.exactRef(Constants.HEAD).isSymbolic());
+			assertFalse(new File(local, "B.java").exists());
+			// Nessun fetch: né il nuovo commit né il nuovo tag sono presenti
+			assertEquals(remoteMaster, repo.resolve(Constants.R_REMOTES + "origin/master"));
+			assertFalse(repo.getObjectDatabase().has(upstream));
+			assertNull(repo.exactRef(Constants.R_TAGS + "release-1.2"));
+		}
+	}
+
+
+	@Test
+	public void singleBranchCloneHasOnlyThatBranchAndItsTags() throws Exception {
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, false, false, "master")) {
+			assertEquals(Collections.singletonList(Constants.R_HEADS + "master"), refNames(git, Constants.R_HEADS));
+			assertEquals(Collections.singletonList(Constants.R_REMOTES + "origin/master"), refNames(git, Constants.R_REMOTES));
+			List<String> tags = refNames(git, Constants.R_TAGS);
+			assertEquals(2, tags.size());
+			assertTrue(tags.contains(Constants.R_TAGS + "release-1.0"));
+			assertTrue(tags.contains(Constants.R_TAGS + "release-1.1"));
+		}
+	}
+
+
+	@Test
+	public void rerunOnBareCloneFetchesNewTags() throws Exception {
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, true, false, "")) {
+			assertNull(git.getRepository().exactRef(Constants.R_TAGS + "release-1.2"));
+		}
+		RevCommit upstream = GitFixtures.commit(source, "D.java", "class D {}", "Add D");
+		GitFixtures.tag(source, "release-1.2");
+
+		try (Git git = GitHubAPI.initializeRepository(sourceURL, local, true, false, "")) {
+			Ref tag = git.getRepository().exactRef(Constants.R_TAGS + "release-1.2");
+			assertNotNull(tag);
+			assertEquals(upstream, tag.getObjectId());
+		}
+	}
+
+
+	private static ObjectId refId(String local, String ref) throws Exception {
+		try (Git git = Git.open(new File(local))) {
+			return git.getRepository().resolve(ref);
+		}
+	}
+
+	private static List<String> refNames(Git git, String prefix) throws Exception {
+		List<String> names = new ArrayList<>();
+		for (Ref ref : git.getRepository().getRefDatabase().getRefsByPrefix(prefix)) {
+			names.add(ref.getName());
+		}
+		return names;
+	}
+}
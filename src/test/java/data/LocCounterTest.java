@@ -0,0 +1,164 @@
+package data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * Verifica che LocCounter produca gli stessi conteggi della versione originale di Metrics.calculateSize
+ * (Scanner e replaceAll su ogni linea), sugli stessi contenuti letti in un solo blocco o a blocchi
+ */
+public class LocCounterTest {
+
+	@Test
+	public void lineSeparators() throws IOException {
+		assertSameCount("int a;\r\nint b;\r\n\r\nint c;\r\n");
+		assertSameCount("int a;\rint b;\r\rint c;\r");
+		assertSameCount("int a;\n\rint b;\r\n\nint c;");
+		assertSameCount("int a;\u0085int b;\u0085\u0085/* c */\u0085int d;");
+		assertSameCount("int a;\u2028int b;\u2029\u2028int c;\u2029\u2029* d");
+	}
+
+
+	@Test
+	public void whitespace() throws IOException {
+		assertSameCount("\tint a;\n\f int b;\n\u000B\u000Bint c;\n \t\f\u000B\n\t\t\n");
+		assertSameCount("\t/ not code\n\f* not code\n\u000B int a; // code\n");
+		// Spazi Unicode diversi da \s contano come caratteri significativi
+		assertSameCount("\u00A0int a;\n\u2003\n\u3000/\n");
+	}
+
+
+	@Test
+	public void blankLines() throws IOException {
+		assertSameCount("\n\n\n");
+		assertSameCount("int a;\n\n\n\nint b;\n\n");
+		assertSameCount("   \n\t\n\r\n");
+	}
+
+
+	@Test
+	public void commentLines() throws IOException {
+		assertSameCount("/**\n * Javadoc\n */\npublic class A {\n\t// commento\n\t/* blocco */ int a;\n\t*/\n}\n");
+		assertSameCount("/\n*\n//\n*/\nx/\n");
+		assertSameCount("int a; /* commento\n   che prosegue */ int b;\n");
+	}
+
+
+	@Test
+	public void noTrailingNewline() throws IOException {
+		assertSameCount("int a;");
+		assertSameCount("int a;\nint b;");
+		assertSameCount("int a;\n// fine");
+	}
+
+
+	@Test
+	public void emptyBlob() throws IOException {
+		assertSameCount("");
+		assertEquals(0, LocCounter.count(new byte[0]));
+	}
+
+
+	@Test
+	public void nonAsciiCharacters() throws IOException {
+		assertSameCount("String s = \"citt\u00E0\";\n\u00E8 = 1;\n\u20AC\n\u2027\n\u202A\n\u00C2\u0084\n");
+		// Prefissi dei separatori multi-byte seguiti da altri byte, ed in fondo al blob
+		assertSameBytes(new byte[] {'a', '\n', (byte) 0xC2, '\n', (byte) 0xE2, (byte) 0x80, '\n', 'b'});
+		assertSameBytes(new byte[] {'\n', (byte) 0xE2, (byte) 0x80});
+		assertSameBytes(new byte[] {'\n', (byte) 0xC2});
+	}
+
+
+	@Test
+	public void randomCorpus() throws IOException {
+		String[] alphabet = {"\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029", " ", "\t", "\f", "\u000B",
+				"/", "*", "a", ";", "\u00E8", "\u20AC", "\u00A0"};
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder builder = new StringBuilder();
+			int length = random.nextInt(40);
+			for (int j = 0; j < length; j++) {
+				builder.append(alphabet[random.nextInt(alphabet.length)]);
+			}
+			assertSameCount(builder.toString());
+		}
+	}
+
+
+	private static void assertSameCount(String content) throws IOException {
+		assertSameBytes(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+
+	/**
+	 * Confronta il conteggio originale con LocCounter su array, stream e blocchi di ogni dimensione fino a 4 byte
+	 */
+	private static void assertSameBytes(byte[] data) throws IOException {
+		String message = escape(new String(data, StandardCharsets.UTF_8));
+		int expected = legacyCount(data);
+		assertEquals(message, expected, LocCounter.count(data));
+		for (int block = 1; block <= 4; block++) {
+			assertEquals(message + " (blocchi da " + block + ")", expected, LocCounter.count(new ChunkedStream(data, block)));
+		}
+	}
+
+
+	/**
+	 * Conteggio originale di Metrics.calculateSize
+	 */
+	private static int legacyCount(byte[] data) {
+		String content = new String(data, StandardCharsets.UTF_8);
+
+		int calcSize = 0;
+		Scanner scanner = new Scanner(content);
+
+		while (scanner.hasNextLine()) {
+			String line = scanner.nextLine();
+			line = line.replaceAll("\\s+", "");
+			if (!(line.startsWith("/") || line.startsWith("*") || line.startsWith("//") || line.startsWith("*/")
+					|| line.equalsIgnoreCase(""))) {
+				calcSize = calcSize + 1;
+			}
+		}
+		scanner.close();
+		return calcSize;
+	}
+
+
+	private static String escape(String s) {
+		StringBuilder builder = new StringBuilder();
+		for (char c : s.toCharArray()) {
+			if (c < 0x20 || c > 0x7E) {
+				builder.append(String.format("\\u%04X", (int) c));
+			} else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+
+	/**
+	 * Stream che restituisce al massimo blockSize byte per ogni read()
+	 */
+	private static class ChunkedStream extends ByteArrayInputStream {
+		private final int blockSize;
+
+		ChunkedStream(byte[] data, int blockSize) {
+			super(data);
+			this.blockSize = blockSize;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, blockSize));
+		}
+	}
+}
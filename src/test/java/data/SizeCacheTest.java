@@ -0,0 +1,62 @@
+package data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Verifica che la cache delle Size su disco venga ricaricata soltanto se scritta con lo stesso
+ * formato e la stessa versione di LocCounter
+ */
+public class SizeCacheTest {
+
+	private static final String BLOB_A = "0123456789abcdef0123456789abcdef01234567";
+	private static final String BLOB_B = "89abcdef0123456789abcdef0123456789abcdef";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void roundTrip() throws Exception {
+		File file = write(SizeCache.HEADER, BLOB_A + ";12", BLOB_B + ";0");
+		SizeCache cache = new SizeCache();
+		cache.load(file.getPath());
+		assertEquals(2, cache.size());
+
+		File saved = new File(folder.getRoot(), "saved.csv");
+		cache.save(saved.getPath());
+		SizeCache reloaded = new SizeCache();
+		reloaded.load(saved.getPath());
+		assertEquals(2, reloaded.size());
+	}
+
+
+	@Test
+	public void fileWithoutHeaderIsIgnored() throws Exception {
+		SizeCache cache = new SizeCache();
+		cache.load(write(BLOB_A + ";12", BLOB_B + ";0").getPath());
+		assertEquals(0, cache.size());
+	}
+
+
+	@Test
+	public void otherCounterVersionIsIgnored() throws Exception {
+		SizeCache cache = new SizeCache();
+		cache.load(write("#SizeCache;1;LocCounter;" + (LocCounter.VERSION + 1), BLOB_A + ";12").getPath());
+		assertEquals(0, cache.size());
+	}
+
+
+	private File write(String... lines) throws Exception {
+		File file = folder.newFile();
+		Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+		return file;
+	}
+}
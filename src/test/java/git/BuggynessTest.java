@@ -0,0 +1,183 @@
+package git;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.ProjectClass;
+import jira.JiraRelease;
+import jira.JiraTicket;
+import utils.GitFixtures;
+
+/**
+ * Verifica che la buggyness calcolata con i bitset per path (setBuggynessWithAV() + materializeBuggyness())
+ * coincida con l'etichettatura originale, che per ogni AV cercava la release con getReleaseByName()
+ * e la classe con getProjectClass()
+ */
+public class BuggynessTest {
+
+	private static final String[] RELEASES = {"1.0", "1.1", "1.2", "2.0", "2.1", "2.2"};
+	private static final String A = "src/main/java/A.java";
+	private static final String B = "src/main/java/B.java";
+	private static final String C = "src/main/java/C.java";	// Aggiunta nella release 1.2
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private GitRepo repo;
+	private List<JiraRelease> jiraReleases;
+
+	@Before
+	public void setUp() throws Exception {
+		File source = folder.newFolder("source");
+		try (Git git = GitFixtures.init(source)) {
+			repo = new GitRepo("fixture", new File(folder.getRoot(), "clone").getPath(), "release-", GitFixtures.url(git));
+		}
+		jiraReleases = new ArrayList<>();
+		for (int i = 0; i < RELEASES.length; i++) {
+			JiraRelease release = new JiraRelease(RELEASES[i]);
+			release.setID(i + 1);
+			jiraReleases.add(release);
+		}
+	}
+
+
+	@Test
+	public void contiguousAffectedVersions() {
+		// fixAvList() produce l'intervallo [IV,FV) = 1.1, 1.2, 2.0
+		JiraTicket ticket = ticket();
+		ticket.setIv(jiraReleases.get(1));
+		ticket.setFv(jiraReleases.get(4));
+		ticket.fixAvList(jiraReleases);
+
+		boolean[][] buggy = assertSameLabeling(new JiraTicket[] {ticket, ticket}, new String[] {A, C});
+		assertTrue(buggy[1][0] && buggy[2][0] && buggy[3][0]);
+	}
+
+
+	@Test
+	public void nonContiguousAffectedVersions() {
+		// Posizioni 0, 2, 5: non contigue, vengono segnate una ad una
+		JiraTicket sparse = ticket(jiraReleases.get(5), jiraReleases.get(0), jiraReleases.get(2));
+		// Posizioni contigue ma in ordine sparso
+		JiraTicket unordered = ticket(jiraReleases.get(3), jiraReleases.get(2));
+
+		boolean[][] buggy = assertSameLabeling(new JiraTicket[] {sparse, sparse, unordered}, new String[] {A, C, B});
+		assertTrue(buggy[0][0] && !buggy[1][0] && buggy[2][0] && buggy[5][0]);
+	}
+
+
+	@Test
+	public void affectedVersionWithoutGitRelease() {
+		// Una AV presente soltanto su Jira viene ignorata, le altre AV del ticket vengono comunque segnate
+		JiraTicket ticket = ticket(jiraReleases.get(1), new JiraRelease("9.9"), jiraReleases.get(2));
+		JiraTicket onlyMissing = ticket(new JiraRelease("9.9"));
+
+		boolean[][] buggy = assertSameLabeling(new JiraTicket[] {ticket, onlyMissing}, new String[] {B, A});
+		assertTrue(buggy[1][1] && buggy[2][1]);
+	}
+
+
+	/**
+	 * Applica le coppie (ticket, path) con entrambe le etichettature su due copie delle release e
+	 * verifica che i flag isBuggy coincidano. Ritorna i flag [release][classe] di A, B, C.
+	 */
+	private boolean[][] assertSameLabeling(JiraTicket[] tickets, String[] paths) {
+		List<GitRelease> legacyReleases = releases();
+		for (int i = 0; i < tickets.length; i++) {
+			legacySetBuggyness(legacyReleases, tickets[i], paths[i]);
+		}
+
+		List<GitRelease> releases = releases();
+		repo.setReleaseList(releases);
+		for (int i = 0; i < tickets.length; i++) {
+			GitCommit fix = new GitCommit(ObjectId.zeroId(), 0);
+			fix.setTicket(tickets[i]);
+			repo.setBuggynessWithAV(fix, paths[i]);
+		}
+		repo.materializeBuggyness();
+
+		boolean[][] expected = flags(legacyReleases);
+		boolean[][] actual = flags(releases);
+		for (int r = 0; r < expected.length; r++) {
+			assertArrayEquals("Release " + RELEASES[r], expected[r], actual[r]);
+		}
+		return actual;
+	}
+
+
+	/**
+	 * Etichettatura originale. L'unica differenza è il controllo della release null: il codice
+	 * originale falliva con NullPointerException per una AV senza release su Git.
+	 */
+	private static void legacySetBuggyness(List<GitRelease> releases, JiraTicket ticket, String pathClass) {
+		for (JiraRelease av : ticket.getAffectedVersions()) {
+			GitRelease gitAv = null;
+			for (GitRelease r : releases) {
+				if (r.getName().equals(av.getName())) {
+					gitAv = r;
+					break;
+				}
+			}
+			if (gitAv == null) {
+				continue;
+			}
+			ProjectClass projClass = gitAv.getProjectClass(pathClass);
+			if (projClass != null) {
+				projClass.setBuggy(true);
+			}
+		}
+	}
+
+
+	private static List<GitRelease> releases() {
+		List<GitRelease> releases = new ArrayList<>();
+		for (int i = 0; i < RELEASES.length; i++) {
+			GitRelease release = new GitRelease(null, null, RELEASES[i], new Date(i * 1000L));
+			release.setId(i + 1);
+			List<ProjectClass> classes = new ArrayList<>();
+			classes.add(new ProjectClass(A, release));
+			classes.add(new ProjectClass(B, release));
+			if (i >= 2) {
+				classes.add(new ProjectClass(C, release));
+			}
+			release.setClassList(classes);
+			releases.add(release);
+		}
+		return releases;
+	}
+
+
+	private static boolean[][] flags(List<GitRelease> releases) {
+		boolean[][] flags = new boolean[releases.size()][];
+		for (int r = 0; r < releases.size(); r++) {
+			GitRelease release = releases.get(r);
+			flags[r] = new boolean[3];
+			String[] paths = {A, B, C};
+			for (int p = 0; p < paths.length; p++) {
+				ProjectClass projClass = release.getProjectClass(paths[p]);
+				flags[r][p] = projClass != null && projClass.isBuggy();
+			}
+		}
+		return flags;
+	}
+
+
+	private static JiraTicket ticket(JiraRelease... affectedVersions) {
+		JiraTicket ticket = new JiraTicket();
+		ticket.setAffectedVersions(new ArrayList<>(Arrays.asList(affectedVersions)));
+		return ticket;
+	}
+}
@@ -0,0 +1,70 @@
+package git;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import utils.GitFixtures;
+
+/**
+ * Verifica che il chgSetSize calcolato da computeDiff() conti una sola volta i file Java rinominati
+ * quando la rename detection è attiva
+ */
+public class ChangeSetSizeTest {
+
+	private static final String CONTENT = "public class A {\n\tint a;\n\tint b;\n\tint c;\n}\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void renamesCountedOnce() throws Exception {
+		File source = folder.newFolder("source");
+		try (Git git = GitFixtures.init(source)) {
+			GitFixtures.commit(git, "A.java", CONTENT, "Add A");
+			GitFixtures.commit(git, "B.txt", "notes", "Add B");
+			RevCommit parent = GitFixtures.commit(git, "C.java", CONTENT.replace('A', 'C'), "Add C");
+
+			// A.java -> A2.java, B.txt modificato, C.java -> C.txt
+			git.rm().addFilepattern("A.java").addFilepattern("C.java").call();
+			write(source, "A2.java", CONTENT);
+			write(source, "B.txt", "notes v2");
+			write(source, "C.txt", CONTENT.replace('A', 'C'));
+			git.add().addFilepattern("A2.java").addFilepattern("B.txt").addFilepattern("C.txt").call();
+			RevCommit child = git.commit().setMessage("Rename A and C").call();
+
+			GitRepo repo = new GitRepo("fixture", new File(folder.getRoot(), "clone").getPath(), "release-", GitFixtures.url(git));
+			GitCommit commit = new GitCommit(child.copy(), child.getCommitTime());
+			commit.setParentID(parent.copy());
+			GitRelease release = new GitRelease(git, commit, child.name(), new Date(child.getCommitTime() * 1000L));
+			release.fetchClassList();
+			commit.setRelease(release);
+
+			try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+				diffFormatter.setRepository(git.getRepository());
+				diffFormatter.setDetectRenames(true);
+				CommitDiff commitDiff = repo.computeDiff(commit, null, diffFormatter);
+				// A2.java è una RENAME; C.java -> C.txt non viene accoppiata (C.txt è scartato prima della detection)
+				assertEquals(2, commitDiff.getJavaDiffs().size());
+				// A2.java, B.txt, C.java, C.txt
+				assertEquals(4, commitDiff.getChgSetSize());
+			}
+		}
+	}
+
+
+	private static void write(File dir, String path, String content) throws Exception {
+		Files.write(new File(dir, path).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
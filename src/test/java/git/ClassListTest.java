@@ -0,0 +1,68 @@
+package git;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.ProjectClass;
+import utils.GitFixtures;
+
+/**
+ * Verifica che la lista delle classi di una release, sia completa che costruita dal diff con la
+ * release precedente, contenga soltanto i file .java, con lo stesso criterio dei diff dei commit
+ */
+public class ClassListTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void onlyJavaFiles() throws Exception {
+		try (Git git = GitFixtures.init(folder.newFolder("repo"))) {
+			GitFixtures.commit(git, "src/A.java", "class A {}", "Add A");
+			GitFixtures.commit(git, "docs/api.javadoc/index.txt", "index", "Add docs");
+			RevCommit first = GitFixtures.commit(git, "src/A.java.orig", "class A {}", "Add backup");
+			GitFixtures.commit(git, "docs/api.javadoc/index.txt", "index v2", "Update docs");
+			GitFixtures.commit(git, "src/B.java", "class B {}", "Add B");
+			RevCommit second = GitFixtures.commit(git, "src/java/Readme.md", "readme", "Add readme");
+
+			GitRelease previous = release(git, first);
+			previous.fetchClassList();
+			assertEquals(Arrays.asList("src/A.java"), paths(previous));
+
+			GitRelease full = release(git, second);
+			full.fetchClassList();
+			assertEquals(Arrays.asList("src/A.java", "src/B.java"), paths(full));
+
+			GitRelease delta = release(git, second);
+			try (ObjectReader reader = git.getRepository().newObjectReader()) {
+				delta.fetchClassListFrom(previous, reader);
+			}
+			assertEquals(paths(full), paths(delta));
+		}
+	}
+
+
+	private static GitRelease release(Git git, RevCommit commit) {
+		return new GitRelease(git, new GitCommit(commit.copy(), commit.getCommitTime()), commit.name(), new Date(commit.getCommitTime() * 1000L));
+	}
+
+	private static List<String> paths(GitRelease release) {
+		List<String> paths = new ArrayList<>();
+		for (ProjectClass p : release.getClassList()) {
+			paths.add(p.getPath());
+		}
+		return paths;
+	}
+}
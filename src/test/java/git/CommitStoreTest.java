@@ -0,0 +1,75 @@
+package git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.AuthorDictionary;
+
+/**
+ * Verifica che l'archivio letto possa essere riscritto sullo stesso file (il caso di fetchCommits()
+ * quando vengono aggiunti nuovi commit) senza perdere i dati e senza lasciare file temporanei
+ */
+public class CommitStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void saveOverLoadedStore() throws Exception {
+		String fileName = new File(folder.getRoot(), "TEST_Commits.bin").getPath();
+		AuthorDictionary authors = new AuthorDictionary();
+		List<GitCommit> commits = new ArrayList<>();
+		commits.add(commit(1, 0, 1000, authors.getId("alice"), "TEST-1"));
+		commits.add(commit(2, 1, 2000, authors.getId("bob")));
+		new CommitStore(id(1), id(2), commits).save(fileName, authors);
+
+		AuthorDictionary loadedAuthors = new AuthorDictionary();
+		CommitStore loaded = CommitStore.load(fileName, loadedAuthors);
+		assertNotNull(loaded);
+		List<GitCommit> updated = new ArrayList<>(loaded.getCommits());
+		updated.add(commit(3, 2, 3000, loadedAuthors.getId("carol"), "TEST-2", "TEST-3"));
+		new CommitStore(id(1), id(3), updated).save(fileName, loadedAuthors);
+		assertFalse(new File(fileName + ".tmp").exists());
+
+		AuthorDictionary reloadedAuthors = new AuthorDictionary();
+		CommitStore reloaded = CommitStore.load(fileName, reloadedAuthors);
+		assertNotNull(reloaded);
+		assertEquals(id(3), reloaded.getRangeEnd());
+		assertEquals(3, reloaded.getCommits().size());
+		GitCommit first = reloaded.getCommits().get(0);
+		assertEquals(id(1), first.getId());
+		assertNull(first.getParentID());
+		assertEquals(1000, first.getCommitTime());
+		assertEquals("alice", reloadedAuthors.getName(first.getAuthorId()));
+		assertEquals(Arrays.asList("TEST-1"), first.getTicketKeys());
+		GitCommit last = reloaded.getCommits().get(2);
+		assertEquals(id(2), last.getParentID());
+		assertEquals("carol", reloadedAuthors.getName(last.getAuthorId()));
+		assertEquals(Arrays.asList("TEST-2", "TEST-3"), last.getTicketKeys());
+	}
+
+
+	private static GitCommit commit(int id, int parent, int time, int author, String... keys) {
+		GitCommit commit = new GitCommit(id(id), time);
+		commit.setParentID(parent == 0 ? null : id(parent));
+		commit.setAuthorId(author);
+		commit.setTicketKeys(Arrays.asList(keys));
+		return commit;
+	}
+
+	private static ObjectId id(int n) {
+		return ObjectId.fromString(String.format("%040x", n));
+	}
+}
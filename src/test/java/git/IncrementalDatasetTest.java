@@ -0,0 +1,207 @@
+package git;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import data.Metrics;
+import data.ProjectClass;
+import jira.JiraRelease;
+import jira.JiraTicket;
+import utils.CheckpointHandler;
+import utils.GitFixtures;
+import utils.RunMetrics;
+
+/**
+ * Verifica che la modalità incrementale (ripristino dal checkpoint ed elaborazione dei soli nuovi commit)
+ * produca le stesse metriche e la stessa buggyness di un'esecuzione completa sulla stessa storia
+ */
+public class IncrementalDatasetTest {
+
+	private static final String[] OLD_RELEASES = {"1.0", "1.1"};
+	private static final String[] NEW_RELEASES = {"1.0", "1.1", "1.2"};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Git source;
+	private int time;
+	private File checkpointFile;
+
+	@Before
+	public void setUp() throws Exception {
+		// Commit successivi al commit iniziale della fixture, un minuto l'uno dall'altro
+		time = (int) (System.currentTimeMillis() / 1000L) + 86400;
+		source = GitFixtures.init(folder.newFolder("source"));
+		commit("A.java", "class A {\n}\n", "Add A");
+		commit("B.java", "class B {\n}\n", "TEST-1 Add B");
+		GitFixtures.tag(source, "release-1.0");
+		commit("A.java", "class A {\n\tint a;\n}\n", "TEST-2 Change A");
+		commit("B.java", "class B {\n\tint b;\n}\n", "Update B");
+		GitFixtures.tag(source, "release-1.1");
+		checkpointFile = new File(folder.getRoot(), "checkpoint.json");
+	}
+
+	@After
+	public void tearDown() {
+		source.close();
+		RunMetrics.stop();
+	}
+
+
+	@Test
+	public void newCommitsAndNewFixCommit() throws Exception {
+		checkpoint(ticket("TEST-1", "1.0"));
+		commit("A.java", "class A {\n\tint a;\n\tint c;\n}\n", "Update A");
+		commit("C.java", "class C {\n}\n", "TEST-3 Add C");
+		GitFixtures.tag(source, "release-1.2");
+
+		// TEST-2 è risolto soltanto ora, ma è citato da un commit già elaborato. Nuovi commit: i due
+		// commit ed il commit della release 1.2, che compare anche come release
+		assertIncrementalEqualsFull(3, ticket("TEST-1", "1.0"), ticket("TEST-2", "1.0", "1.1"), ticket("TEST-3", "1.2"));
+	}
+
+
+	@Test
+	public void commitWithEarlierDateForcesFullBuild() throws Exception {
+		checkpoint(ticket("TEST-1", "1.0"), ticket("TEST-2", "1.0", "1.1"));
+		// Commit con data precedente agli ultimi commit già elaborati (es. una branch integrata dopo)
+		commit("B.java", "class B {\n\tint b;\n\tint e;\n}\n", "Update B", -150);
+		GitFixtures.tag(source, "release-1.2");
+		assertIncrementalEqualsFull(-1, ticket("TEST-1", "1.0"), ticket("TEST-2", "1.0", "1.1"));
+	}
+
+
+	@Test
+	public void fixCommitNoLongerFixClearsBuggyness() throws Exception {
+		checkpoint(ticket("TEST-1", "1.0"), ticket("TEST-2", "1.0", "1.1"));
+		commit("C.java", "class C {\n}\n", "Add C");
+		GitFixtures.tag(source, "release-1.2");
+		// TEST-2 non è più un ticket valido: la buggyness di A nelle release 1.0 e 1.1 va azzerata
+		GitRepo full = assertIncrementalEqualsFull(-1, ticket("TEST-1", "1.0"));
+		for (GitRelease r : full.getReleaseList()) {
+			for (ProjectClass p : r.getClassList()) {
+				assertTrue(p.getPath().equals("B.java") && r.getName().equals("1.0") || !p.isBuggy());
+			}
+		}
+	}
+
+
+	@Test
+	public void sameFixCommitsWithDifferentAffectedVersions() throws Exception {
+		checkpoint(ticket("TEST-1", "1.0"), ticket("TEST-2", "1.0", "1.1"));
+		commit("C.java", "class C {\n}\n", "Add C");
+		GitFixtures.tag(source, "release-1.2");
+		assertIncrementalEqualsFull(-1, ticket("TEST-1", "1.0"), ticket("TEST-2", "1.1"));
+	}
+
+
+	/**
+	 * Esegue la modalità incrementale dal checkpoint e l'elaborazione completa della stessa storia e ne confronta
+	 * le classi. newCommits è il numero di commit elaborati dalla modalità incrementale (-1 = tutti). Ritorna la
+	 * GitRepo dell'elaborazione completa.
+	 */
+	private GitRepo assertIncrementalEqualsFull(int newCommits, JiraTicket... tickets) throws Exception {
+		RunMetrics incrementalRun = RunMetrics.start("incremental");
+		JiraTicket[] incrementalTickets = copy(tickets);
+		GitRepo incremental = build("incremental", CheckpointHandler.load(checkpointFile.getPath()), NEW_RELEASES, incrementalTickets);
+		RunMetrics.start("full");
+		GitRepo full = build("full", null, NEW_RELEASES, tickets);
+
+		assertEquals(snapshot(full), snapshot(incremental));
+		int expected = newCommits == -1 ? full.getCommitList().size() : newCommits;
+		assertEquals(expected, incrementalRun.getCounter(RunMetrics.COMMITS));
+		return full;
+	}
+
+
+	/**
+	 * Elaborazione completa delle release 1.0 e 1.1, salvata nel checkpoint
+	 */
+	private void checkpoint(JiraTicket... tickets) throws Exception {
+		CheckpointHandler.save(checkpointFile.getPath(), build("first", null, OLD_RELEASES, tickets));
+	}
+
+
+	private GitRepo build(String clone, JSONObject checkpoint, String[] releases, JiraTicket... tickets) throws Exception {
+		GitRepo repo = new GitRepo("test", new File(folder.getRoot(), clone).getPath(), "release-", GitFixtures.url(source));
+		repo.setCheckpoint(checkpoint);
+		List<JiraRelease> jiraReleases = new ArrayList<>();
+		for (String name : releases) {
+			jiraReleases.add(new JiraRelease(name));
+		}
+		repo.setCommonReleases(jiraReleases);
+		repo.fetchCommits();
+		repo.bindRevisionsToReleases();
+		repo.setFixCommitList(repo.filterCommits(new ArrayList<>(Arrays.asList(tickets))));
+		repo.setMetrics();
+		return repo;
+	}
+
+
+	private void commit(String path, String content, String message) throws Exception {
+		commit(path, content, message, 0);
+	}
+
+	/**
+	 * Commit un minuto dopo il precedente, spostato di offset secondi
+	 */
+	private void commit(String path, String content, String message, int offset) throws Exception {
+		time += 60;
+		GitFixtures.commit(source, path, content, message, time + offset);
+	}
+
+
+	private static JiraTicket ticket(String name, String... affectedVersions) {
+		JiraTicket ticket = new JiraTicket();
+		ticket.setName(name);
+		List<JiraRelease> avs = new ArrayList<>();
+		for (String av : affectedVersions) {
+			avs.add(new JiraRelease(av));
+		}
+		ticket.setAffectedVersions(avs);
+		return ticket;
+	}
+
+	private static JiraTicket[] copy(JiraTicket[] tickets) {
+		JiraTicket[] copies = new JiraTicket[tickets.length];
+		for (int i = 0; i < tickets.length; i++) {
+			List<String> names = new ArrayList<>();
+			for (JiraRelease av : tickets[i].getAffectedVersions()) {
+				names.add(av.getName());
+			}
+			copies[i] = ticket(tickets[i].getName(), names.toArray(new String[0]));
+		}
+		return copies;
+	}
+
+
+	private static List<String> snapshot(GitRepo repo) {
+		List<String> lines = new ArrayList<>();
+		for (GitRelease r : repo.getReleaseList()) {
+			List<ProjectClass> classes = new ArrayList<>(r.getClassList());
+			classes.sort(Comparator.comparing(ProjectClass::getPath));
+			for (ProjectClass p : classes) {
+				Metrics m = p.getMetrics();
+				lines.add(String.format("%s %s buggy=%s added=%d size=%d locTouched=%d revisions=%d bugFixes=%d locAdded=%d/%d/%d chgSet=%d/%d/%d nAuth=%d",
+						r.getName(), p.getPath(), p.isBuggy(), p.getDateAdded().getTime(), m.getSize(), m.getLocTouched(),
+						m.getNumberRevisions(), m.getNumberBugFixes(), m.getLocAdded(), m.getMaxLocAdded(), (int) m.getAvgLocAdded(),
+						m.getChgSetSize(), m.getMaxChgSetSize(), m.getAvgChgSetSize(), m.getnAuth()));
+			}
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,74 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Repository Git locali per i test, raggiungibili con URL file://
+ */
+public class GitFixtures {
+
+	private static final PersonIdent AUTHOR = new PersonIdent("Test Author", "test@example.org");
+
+	private GitFixtures() {}
+
+
+	/**
+	 * Crea una repository con working tree nella directory in input ed un primo commit sulla branch master
+	 */
+	public static Git init(File dir) throws GitAPIException, IOException {
+		Git git = Git.init().setDirectory(dir).setInitialBranch("master").call();
+		commit(git, "README.md", "fixture", "Initial commit");
+		return git;
+	}
+
+
+	/**
+	 * Scrive il file in input (path relativo alla working tree) ed effettua il commit
+	 */
+	public static RevCommit commit(Git git, String path, String content, String message) throws GitAPIException, IOException {
+		File file = new File(git.getRepository().getWorkTree(), path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		git.add().addFilepattern(path).call();
+		return git.commit().setMessage(message).setAuthor(AUTHOR).setCommitter(AUTHOR).call();
+	}
+
+
+	/**
+	 * Come commit(), con il commit time in input (epoch in secondi) per autore e committer
+	 */
+	public static RevCommit commit(Git git, String path, String content, String message, int commitTime) throws GitAPIException, IOException {
+		File file = new File(git.getRepository().getWorkTree(), path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		git.add().addFilepattern(path).call();
+		PersonIdent ident = new PersonIdent(AUTHOR, new Date(commitTime * 1000L), TimeZone.getTimeZone("UTC"));
+		return git.commit().setMessage(message).setAuthor(ident).setCommitter(ident).call();
+	}
+
+
+	/**
+	 * Crea un tag leggero sul commit corrente
+	 */
+	public static void tag(Git git, String name) throws GitAPIException {
+		git.tag().setName(name).setAnnotated(false).call();
+	}
+
+
+	/**
+	 * Ritorna l'URL file:// della repository
+	 */
+	public static String url(Git git) {
+		return git.getRepository().getDirectory().toURI().toString();
+	}
+}